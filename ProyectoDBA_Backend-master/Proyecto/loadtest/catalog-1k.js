@@ -0,0 +1,45 @@
+// Prueba de carga con k6 (https://k6.io): 1000 clientes concurrentes sobre el catálogo y el checkout.
+// Comparar el throughput de los dos modos levantando la aplicación con cada configuración:
+//   mvn spring-boot:run -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=false
+//   mvn spring-boot:run -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true
+//   k6 run -e BASE_URL=http://localhost:8080 -e PRODUCT_ID=1 loadtest/catalog-1k.js
+// y comparar http_reqs (peticiones/s) y http_req_duration p(99) del resumen.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PRODUCT_ID = __ENV.PRODUCT_ID || '1';
+
+export const options = {
+    scenarios: {
+        catalog: {
+            executor: 'constant-vus',
+            vus: 1000,
+            duration: __ENV.DURATION || '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const page = http.get(`${BASE_URL}/api/products/paginated?size=20`);
+    check(page, { 'paginated 200': (r) => r.status === 200 });
+
+    const filter = http.get(`${BASE_URL}/api/products/filter?minPrice=0&maxPrice=500&size=20`);
+    check(filter, { 'filter 200': (r) => r.status === 200 });
+
+    const product = http.get(`${BASE_URL}/api/products/${PRODUCT_ID}`);
+    check(product, { 'product 200': (r) => r.status === 200 });
+
+    // Checkout asíncrono: ejercita escrituras sin esperar al procesamiento
+    const order = JSON.stringify({
+        customerId: 1,
+        status: 'Pendiente',
+        total: 10,
+        orderDetails: [{ productId: Number(PRODUCT_ID), qty: 1 }],
+    });
+    const checkout = http.post(`${BASE_URL}/api/orders/checkout/async`, order, {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    check(checkout, { 'checkout 202': (r) => r.status === 202 });
+}
@@ -0,0 +1,48 @@
+// Prueba de carga con k6 para elegir el tamaño del pool (DataSourceConfig).
+// Levantar la aplicación con distintos tamaños y la misma carga, por ejemplo:
+//   mvn spring-boot:run -Dspring-boot.run.arguments=--db.pool.size=5
+//   mvn spring-boot:run -Dspring-boot.run.arguments=--db.pool.size=0     (automático: núcleos * 2 + 1)
+//   mvn spring-boot:run -Dspring-boot.run.arguments=--db.pool.size=50
+//   k6 run -e BASE_URL=http://localhost:8080 loadtest/pool-sizing.js
+// Comparar http_reqs y http_req_duration p(99) del resumen, y en /actuator/prometheus
+// hikaricp_connections_acquire_seconds (espera por conexión) y hikaricp_connections_pending.
+// Un pool más grande que el automático solo conviene si la espera por conexión domina la latencia.
+// Todavía no hay resultados registrados: los valores de application.properties (pool, caché de sentencias,
+// prefetch) son puntos de partida. Al correrla, anotar aquí hardware, tamaño probado y cifras obtenidas.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    scenarios: {
+        // Carga creciente: muestra en qué punto el pool empieza a encolar
+        ramp: {
+            executor: 'ramping-arrival-rate',
+            startRate: 50,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 1000,
+            stages: [
+                { target: 200, duration: '1m' },
+                { target: 800, duration: '2m' },
+                { target: 800, duration: '1m' },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const page = http.get(`${BASE_URL}/api/products/paginated?size=20`);
+    check(page, { 'paginated 200': (r) => r.status === 200 });
+
+    const filter = http.get(`${BASE_URL}/api/products/filter?minPrice=0&maxPrice=500&size=20`);
+    check(filter, { 'filter 200': (r) => r.status === 200 });
+}
+
+// Estado del pool al final de la prueba
+export function teardown() {
+    const stats = http.get(`${BASE_URL}/api/admin/datasource`);
+    console.log(`datasource: ${stats.body}`);
+}
@@ -0,0 +1,49 @@
+package com.umg.proyecto;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Tamaño del pool de Hikari. Con db.pool.size=0 se calcula al arrancar: (núcleos * 2) + 1, sin pasar
+ * de la parte que le toca a esta instancia de las conexiones que admite la base (db.pool.db-max-connections
+ * entre db.pool.instances). El resto de la configuración del pool y del driver está en application.properties.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // Estático para que se registre antes de crear el DataSource
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        int configured = environment.getProperty("db.pool.size", Integer.class, 0);
+        int dbMaxConnections = environment.getProperty("db.pool.db-max-connections", Integer.class, 100);
+        int instances = environment.getProperty("db.pool.instances", Integer.class, 1);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                // Corre después de enlazar spring.datasource.hikari.* y antes de abrir el pool
+                if (bean instanceof HikariDataSource hikari) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    int size = configured > 0 ? configured : poolSize(cores, dbMaxConnections, instances);
+                    hikari.setMaximumPoolSize(size);
+                    log.info("Pool {}: {} conexiones ({})", hikari.getPoolName(), size,
+                            configured > 0 ? "db.pool.size" : cores + " núcleos, " + dbMaxConnections + " conexiones en la base / " + instances + " instancias");
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int poolSize(int cores, int dbMaxConnections, int instances) {
+        int byCores = cores * 2 + 1;
+        int byDatabase = dbMaxConnections / Math.max(instances, 1);
+        return Math.max(2, Math.min(byCores, byDatabase));
+    }
+}
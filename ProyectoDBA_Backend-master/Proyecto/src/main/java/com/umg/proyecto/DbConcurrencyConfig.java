@@ -0,0 +1,40 @@
+package com.umg.proyecto;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Modo de hilos virtuales (spring.threads.virtual.enabled=true): Tomcat, @Scheduled y los eventos
+ * corren en hilos virtuales y el DataSource se envuelve con un límite de concurrencia para no
+ * saturar Oracle con miles de peticiones simultáneas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DbConcurrencyConfig {
+
+    // Estático para que el post-procesador se registre antes de crear el DataSource
+    @Bean
+    public static BeanPostProcessor dbConcurrencyLimiter(Environment environment) {
+        // 0: el mismo tamaño que el pool, calculado por DataSourceConfig
+        int limit = environment.getProperty("db.concurrency.limit", Integer.class, 0);
+        long timeoutMs = environment.getProperty("db.concurrency.acquire-timeout-ms", Long.class, 2000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    int permits = limit > 0 ? limit
+                            : bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                    return new ConcurrencyLimitedDataSource(dataSource, permits, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
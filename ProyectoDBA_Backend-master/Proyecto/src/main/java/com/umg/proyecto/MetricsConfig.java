@@ -0,0 +1,56 @@
+package com.umg.proyecto;
+
+import com.umg.proyecto.metrics.InstrumentedJdbcTemplate;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Métricas expuestas en /actuator/prometheus. Además de las de Spring Boot (http.server.requests por
+ * endpoint y hikaricp.* del pool, incluida la espera por conexión), registra cada sentencia SQL y la
+ * espera en el límite de concurrencia del modo de hilos virtuales.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Reemplaza al JdbcTemplate de Spring Boot con las mismas propiedades spring.jdbc.template.*
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties, MeterRegistry meterRegistry,
+                                     @Value("${metrics.jdbc.max-statements:300}") int maxStatements) {
+        InstrumentedJdbcTemplate jdbcTemplate = new InstrumentedJdbcTemplate(dataSource, meterRegistry, maxStatements);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    @Bean
+    public MeterBinder dbConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConcurrencyLimitedDataSource limited)) {
+                return;
+            }
+            Gauge.builder("db.concurrency.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                    .description("Permisos libres del límite de concurrencia")
+                    .register(registry);
+            Gauge.builder("db.concurrency.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                    .description("Hilos esperando un permiso para usar la base")
+                    .register(registry);
+            FunctionCounter.builder("db.concurrency.wait", limited, source -> source.getWaitNanos() / 1e9)
+                    .baseUnit("seconds")
+                    .description("Tiempo total esperado por un permiso")
+                    .register(registry);
+        };
+    }
+}
@@ -13,6 +13,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000")  // Permitir este origen
                 .allowedMethods("GET", "POST", "PUT", "DELETE")  // Métodos permitidos
                 .allowedHeaders("*")  // Permitir todos los encabezados
+                .exposedHeaders("X-Next-Cursor")  // Cursor de la siguiente página de /api/orders
                 .allowCredentials(true);  // Permitir credenciales (cookies, auth, etc.)
     }
 }
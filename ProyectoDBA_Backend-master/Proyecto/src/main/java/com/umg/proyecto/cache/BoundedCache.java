@@ -0,0 +1,181 @@
+package com.umg.proyecto.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché de lectura (read-through) acotada por tamaño (LRU) y por tiempo de vida.
+ * Lleva contadores de aciertos, fallos y desalojos para poder dimensionarla.
+ * Con valores mutables se indica una función de copia: cada lectura entrega una copia y quien la
+ * modifique no altera lo que ven las demás peticiones.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    // Cambia con cada invalidación; una carga que se cruza con una invalidación no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final UnaryOperator<V> copier;
+
+    public BoundedCache(String name, int maxSize, long ttlMillis) {
+        this(name, maxSize, ttlMillis, UnaryOperator.identity());
+    }
+
+    public BoundedCache(String name, int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+        this.name = name;
+        this.copier = copier;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // Orden de acceso: el primer elemento es siempre el menos usado recientemente
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Devuelve el valor en caché o lo carga con el loader si no existe o ya expiró
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CacheEntry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return copier.apply(entry.value);
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        V value = loader.apply(key);  // La consulta se hace fuera del candado
+        if (value == null) {
+            return null;
+        }
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+            }
+        }
+        return copier.apply(value);
+    }
+
+    /**
+     * Versión por lotes de get: devuelve las claves en caché y carga las que faltan con una sola
+     * llamada al loader. Las claves que el loader no devuelve quedan fuera del resultado.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        long now = System.nanoTime();
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (K key : keys) {
+                CacheEntry<V> entry = entries.get(key);
+                if (entry != null && now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    result.put(key, copier.apply(entry.value));
+                    continue;
+                }
+                if (entry != null) {
+                    entries.remove(key);
+                    expirations.increment();
+                }
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        misses.add(missing.size());
+        long loadGeneration = generation.get();
+        Map<K, V> loaded = loader.apply(missing);
+        long loadedAt = System.nanoTime();
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                loaded.forEach((key, value) -> entries.put(key, new CacheEntry<>(value, loadedAt)));
+            }
+        }
+        loaded.forEach((key, value) -> result.put(key, copier.apply(value)));
+        return result;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    // Invalida solo las entradas cuyo valor cumple la condición
+    public void invalidateIf(Predicate<V> condition) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> condition.test(entry.value));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlNanos / 1_000_000_000L);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private CacheEntry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.umg.proyecto.cache;
+
+import com.umg.proyecto.models.Brand;
+import com.umg.proyecto.models.Product;
+import com.umg.proyecto.services.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cachés del catálogo (productos y marcas) usadas por ProductService y BrandService.
+ * Las invalidaciones se aplican de inmediato y otra vez al confirmar la transacción,
+ * para que una lectura concurrente no vuelva a guardar el valor anterior al commit.
+ */
+@Component
+public class CatalogCache {
+
+    public static final String ALL = "ALL";
+
+    private final BoundedCache<Integer, Product> products;
+    private final BoundedCache<String, List<Product>> productLists;
+    private final BoundedCache<Integer, Brand> brands;
+    private final BoundedCache<String, List<Brand>> brandLists;
+
+    private final CatalogVersions versions;
+
+    public CatalogCache(@Value("${catalog.cache.products.max-size:20000}") int productMaxSize,
+                        @Value("${catalog.cache.brands.max-size:2000}") int brandMaxSize,
+                        @Value("${catalog.cache.ttl-ms:300000}") long ttlMillis,
+                        CatalogVersions versions) {
+        this.versions = versions;
+        // Product y Brand son mutables: cada lectura entrega copias
+        this.products = new BoundedCache<>("products", productMaxSize, ttlMillis, CatalogCache::copy);
+        this.productLists = new BoundedCache<>("productLists", 64, ttlMillis, CatalogCache::copyProducts);
+        this.brands = new BoundedCache<>("brands", brandMaxSize, ttlMillis, CatalogCache::copy);
+        this.brandLists = new BoundedCache<>("brandLists", 8, ttlMillis, CatalogCache::copyBrands);
+    }
+
+    public BoundedCache<Integer, Product> products() {
+        return products;
+    }
+
+    public BoundedCache<String, List<Product>> productLists() {
+        return productLists;
+    }
+
+    public BoundedCache<Integer, Brand> brands() {
+        return brands;
+    }
+
+    public BoundedCache<String, List<Brand>> brandLists() {
+        return brandLists;
+    }
+
+    // Un producto cambió (datos o stock): se invalida su entrada y los listados que lo pueden contener
+    public void evictProduct(Integer productId) {
+        evictProductNow(productId);
+        AfterCommit.run(() -> evictProductNow(productId));
+    }
+
+    // Se agregó un producto: solo cambian los listados
+    public void evictProductLists() {
+        evictProductListsNow();
+        AfterCommit.run(this::evictProductListsNow);
+    }
+
+    // Carga masiva: se descarta todo lo cacheado de productos
+    public void evictAllProducts() {
+        products.invalidateAll();
+        productLists.invalidateAll();
+        versions.touch(CatalogVersions.PRODUCTS);
+    }
+
+    // Cambió una marca: su entrada, el listado de marcas y los productos que llevan su nombre
+    public void evictBrand(Integer brandId) {
+        evictBrandNow(brandId);
+        AfterCommit.run(() -> evictBrandNow(brandId));
+    }
+
+    // Se agregó una marca: solo cambia el listado
+    public void evictBrandLists() {
+        evictBrandListsNow();
+        AfterCommit.run(this::evictBrandListsNow);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", products.stats());
+        stats.put("productLists", productLists.stats());
+        stats.put("brands", brands.stats());
+        stats.put("brandLists", brandLists.stats());
+        return stats;
+    }
+
+    // Las invalidaciones también cambian la versión de la familia (ETag de los listados)
+    private void evictProductNow(Integer productId) {
+        products.invalidate(productId);
+        productLists.invalidateAll();
+        versions.touch(CatalogVersions.PRODUCTS);
+    }
+
+    private void evictProductListsNow() {
+        productLists.invalidateAll();
+        versions.touch(CatalogVersions.PRODUCTS);
+    }
+
+    // Los productos llevan el nombre de la marca: cambian ambas familias
+    private void evictBrandNow(Integer brandId) {
+        brands.invalidate(brandId);
+        brandLists.invalidateAll();
+        products.invalidateIf(product -> product.getBrand() != null && brandId.equals(product.getBrand().getId()));
+        productLists.invalidateAll();
+        versions.touch(CatalogVersions.BRANDS);
+        versions.touch(CatalogVersions.PRODUCTS);
+    }
+
+    private void evictBrandListsNow() {
+        brandLists.invalidateAll();
+        versions.touch(CatalogVersions.BRANDS);
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getPrice(), product.getDescription(),
+                product.getStock(), product.getImage(), product.getBrand() == null ? null : copy(product.getBrand()));
+    }
+
+    private static Brand copy(Brand brand) {
+        return new Brand(brand.getId(), brand.getName());
+    }
+
+    private static List<Product> copyProducts(List<Product> products) {
+        List<Product> copies = new ArrayList<>(products.size());
+        products.forEach(product -> copies.add(copy(product)));
+        return Collections.unmodifiableList(copies);
+    }
+
+    private static List<Brand> copyBrands(List<Brand> brands) {
+        List<Brand> copies = new ArrayList<>(brands.size());
+        brands.forEach(brand -> copies.add(copy(brand)));
+        return Collections.unmodifiableList(copies);
+    }
+}
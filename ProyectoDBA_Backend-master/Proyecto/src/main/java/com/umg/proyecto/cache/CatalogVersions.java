@@ -0,0 +1,88 @@
+package com.umg.proyecto.cache;
+
+import com.umg.proyecto.services.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de cada familia del catálogo (productos, categorías, marcas, temporadas) para GET condicionales.
+ * Las escrituras de los servicios suben la versión; los listados responden 304 sin consultar la base
+ * cuando el ETag del cliente coincide. El ETag incluye el arranque del proceso, porque los contadores
+ * vuelven a cero al reiniciar.
+ * Los contadores son de esta instancia y no ven las escrituras hechas en otra; por eso el ETag también
+ * incluye una ventana de tiempo de max-age-ms: al cambiar de ventana deja de coincidir y el listado se
+ * vuelve a armar (con los datos de CatalogCache, que a su vez vencen por TTL).
+ */
+@Component
+public class CatalogVersions {
+
+    public static final String PRODUCTS = "products";
+    public static final String CATEGORIES = "categories";
+    public static final String BRANDS = "brands";
+    public static final String SEASONS = "seasons";
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Máximo tiempo que un ETag sigue vigente sin escrituras locales
+    @Value("${catalog.versions.max-age-ms:30000}")
+    private long maxAgeMillis;
+
+    private final Map<String, Version> versions = Map.of(
+            PRODUCTS, new Version(),
+            CATEGORIES, new Version(),
+            BRANDS, new Version(),
+            SEASONS, new Version());
+
+    /**
+     * Sube la versión ahora y otra vez al confirmar la transacción: una lectura que tomó la versión
+     * nueva antes del commit (y por lo tanto datos viejos) queda con un ETag que ya no es el vigente.
+     * Se llama después de registrar las reconstrucciones post-commit (árbol, calendario), que corren antes.
+     */
+    public void bump(String family) {
+        touch(family);
+        AfterCommit.run(() -> touch(family));
+    }
+
+    // Una sola subida, para quien ya invoca dos veces (antes y después del commit), como CatalogCache
+    public void touch(String family) {
+        Version version = version(family);
+        version.counter.incrementAndGet();
+        version.lastModified = System.currentTimeMillis();
+    }
+
+    public String etag(String family) {
+        long window = System.currentTimeMillis() / maxAgeMillis;
+        return "\"" + family + "-" + bootId + "-" + version(family).counter.get() + "-" + Long.toString(window, 36) + "\"";
+    }
+
+    // El inicio de la ventana actual cuenta como modificación, así If-Modified-Since tampoco responde 304 indefinidamente
+    public long lastModified(String family) {
+        long windowStart = System.currentTimeMillis() / maxAgeMillis * maxAgeMillis;
+        return Math.max(version(family).lastModified, windowStart);
+    }
+
+    /**
+     * Compara If-None-Match / If-Modified-Since con la versión actual. Si coinciden deja la respuesta en 304;
+     * en cualquier caso agrega ETag y Last-Modified a la respuesta.
+     */
+    public boolean checkNotModified(WebRequest request, String family) {
+        return request.checkNotModified(etag(family), lastModified(family));
+    }
+
+    private Version version(String family) {
+        Version version = versions.get(family);
+        if (version == null) {
+            throw new IllegalArgumentException("Familia de catálogo desconocida: " + family);
+        }
+        return version;
+    }
+
+    private static final class Version {
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long lastModified = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,152 @@
+package com.umg.proyecto.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas JSON ya serializadas (sin comprimir y en gzip) para listados muy leídos y poco cambiantes.
+ * Cada entrada queda asociada al ETag de su familia en CatalogVersions: una escritura sube la versión (y el
+ * ETag cambia además con cada ventana de max-age-ms), así la siguiente petición vuelve a serializar.
+ * Mientras tanto se devuelven los mismos arreglos de bytes, sin pasar por Jackson ni comprimir otra vez.
+ */
+@Component
+public class SerializedResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    // Por debajo de este tamaño gzip no compensa y se sirve solo la versión sin comprimir
+    @Value("${catalog.serialized-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Responde con la entrada de key, serializando el resultado de loader si la familia cambió.
+     * Atiende If-None-Match / If-Modified-Since (304) y elige gzip según Accept-Encoding.
+     */
+    public ResponseEntity<byte[]> respond(WebRequest request, String key, String family, Supplier<?> loader) {
+        // La versión se lee antes de cargar: si cambia durante la carga, la entrada ya nace vencida
+        String etag = catalogVersions.etag(family);
+        // La entrada se resuelve antes de comparar: solo ella dice si hay versión gzip (las pequeñas no la tienen).
+        // Con la familia sin cambios es una lectura del mapa; si cambió, se serializa una vez por versión
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.etag.equals(etag)) {
+            entry = serialize(etag, loader.get());
+            entries.put(key, entry);
+        }
+
+        boolean gzip = entry.gzip != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Cada codificación es una representación distinta y lleva su propio ETag fuerte, según el cuerpo que se envía
+        String representationEtag = gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        if (request.checkNotModified(representationEtag, catalogVersions.lastModified(family))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        byte[] body = gzip ? entry.gzip : entry.identity;
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> {
+            Map<String, Object> sizes = new LinkedHashMap<>();
+            sizes.put("etag", entry.etag);
+            sizes.put("identityBytes", entry.identity.length);
+            sizes.put("gzipBytes", entry.gzip == null ? null : entry.gzip.length);
+            stats.put(key, sizes);
+        });
+        return stats;
+    }
+
+    private Entry serialize(String etag, Object value) {
+        byte[] identity;
+        try {
+            identity = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar la respuesta", e);
+        }
+        return new Entry(etag, identity, identity.length >= gzipMinBytes ? gzip(identity) : null);
+    }
+
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(identity.length / 4, 64));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    // gzip aceptado salvo que venga con q=0; un q mal formado se toma como 1 (el valor por omisión)
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && isZero(param.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        private final String etag;
+        private final byte[] identity;
+        private final byte[] gzip;  // null si la respuesta es pequeña
+
+        private Entry(String etag, byte[] identity, byte[] gzip) {
+            this.etag = etag;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+    }
+}
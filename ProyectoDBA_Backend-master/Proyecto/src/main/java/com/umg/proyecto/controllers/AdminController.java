@@ -0,0 +1,85 @@
+package com.umg.proyecto.controllers;
+
+import com.umg.proyecto.cache.CatalogCache;
+import com.umg.proyecto.cache.SerializedResponseCache;
+import com.umg.proyecto.services.DataSourceStatsService;
+import com.umg.proyecto.services.HotStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private SerializedResponseCache serializedResponseCache;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private DataSourceStatsService dataSourceStatsService;
+
+    // Contadores de aciertos, fallos y desalojos de las cachés del catálogo
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return new ResponseEntity<>(catalogCache.stats(), HttpStatus.OK);
+    }
+
+    // Respuestas pre-serializadas: versión vigente y tamaño sin comprimir / gzip de cada una
+    @GetMapping("/cache/serialized")
+    public ResponseEntity<Map<String, Object>> getSerializedCacheStats() {
+        return new ResponseEntity<>(serializedResponseCache.stats(), HttpStatus.OK);
+    }
+
+    // Configuración efectiva del pool de conexiones y su uso actual
+    @GetMapping("/datasource")
+    public ResponseEntity<Map<String, Object>> getDataSourceStats() {
+        return new ResponseEntity<>(dataSourceStatsService.stats(), HttpStatus.OK);
+    }
+
+    // Productos con stock repartido en ranuras
+    @GetMapping("/inventory/hot")
+    public ResponseEntity<List<Map<String, Object>>> getHotProducts() {
+        return new ResponseEntity<>(hotStockService.findHotProducts(), HttpStatus.OK);
+    }
+
+    // Promueve un producto a stock repartido (por ejemplo antes de una venta relámpago)
+    @PostMapping("/inventory/hot/{productId}")
+    public ResponseEntity<Map<String, Object>> promoteHotProduct(@PathVariable Integer productId,
+                                                                 @RequestParam(required = false) Integer slots) {
+        // Un producto inexistente llega como 404 desde GlobalExceptionHandler
+        boolean promoted = hotStockService.promote(productId, slots);
+        Map<String, Object> response = new HashMap<>();
+        response.put("productId", productId);
+        response.put("hot", true);
+        if (!promoted) {
+            response.put("message", "El producto ya tenía stock repartido");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Devuelve el stock a la fila de PRODUCT; 409 si el producto no estaba promovido
+    @DeleteMapping("/inventory/hot/{productId}")
+    public ResponseEntity<Map<String, Object>> demoteHotProduct(@PathVariable Integer productId) {
+        boolean demoted = hotStockService.demote(productId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("productId", productId);
+        response.put("hot", false);
+        if (!demoted) {
+            response.put("message", "El producto no tenía stock repartido");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
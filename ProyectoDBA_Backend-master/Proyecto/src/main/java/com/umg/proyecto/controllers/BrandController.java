@@ -1,13 +1,14 @@
 package com.umg.proyecto.controllers;
 
+import com.umg.proyecto.cache.CatalogVersions;
+import com.umg.proyecto.cache.SerializedResponseCache;
 import com.umg.proyecto.models.Brand;
 import com.umg.proyecto.services.BrandService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/brands")
@@ -16,11 +17,14 @@ public class BrandController {
     @Autowired
     private BrandService brandService;
 
+    @Autowired
+    private SerializedResponseCache serializedResponseCache;
+
     // Obtener todas las marcas
     @GetMapping
-    public ResponseEntity<List<Brand>> getAllBrands() {
-        List<Brand> brands = brandService.findAll();
-        return new ResponseEntity<>(brands, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllBrands(WebRequest request) {
+        // Bytes ya serializados (y en gzip) mientras no cambien las marcas; 304 si el cliente tiene la versión
+        return serializedResponseCache.respond(request, "brands:all", CatalogVersions.BRANDS, brandService::findAll);
     }
 
     // Obtener una marca por ID
@@ -1,30 +1,91 @@
 package com.umg.proyecto.controllers;
 
+import com.umg.proyecto.cache.CatalogVersions;
+import com.umg.proyecto.cache.SerializedResponseCache;
 import com.umg.proyecto.models.Category;
+import com.umg.proyecto.models.CategoryNode;
 import com.umg.proyecto.models.Product;
+import com.umg.proyecto.models.ProductCursor;
+import com.umg.proyecto.models.ProductPage;
 import com.umg.proyecto.services.CategoryProductService;
 import com.umg.proyecto.services.CategoryService;
+import com.umg.proyecto.services.CategoryTreeService;
+import com.umg.proyecto.services.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private CategoryService categoryService;
 
     @Autowired
     private CategoryProductService categoryProductService;
 
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private SerializedResponseCache serializedResponseCache;
+
     // Obtener todas las categorías
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.findAll();
-        return new ResponseEntity<>(categories, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        // Bytes ya serializados (y en gzip) mientras no cambien las categorías; 304 si el cliente tiene la versión
+        return serializedResponseCache.respond(request, "categories:all", CatalogVersions.CATEGORIES,
+                categoryService::findAll);
+    }
+
+    // Árbol completo de categorías (menú) en una sola respuesta
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryNode>> getCategoryTree(WebRequest request) {
+        if (catalogVersions.checkNotModified(request, CatalogVersions.CATEGORIES)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoryTreeService.getTree());
+    }
+
+    // Ruta desde la categoría raíz hasta la indicada
+    @GetMapping("/{id}/ancestors")
+    public ResponseEntity<List<Category>> getAncestors(@PathVariable("id") Integer id) {
+        return new ResponseEntity<>(categoryTreeService.getAncestors(id), HttpStatus.OK);
+    }
+
+    // Productos de la categoría y de todas sus subcategorías, a cualquier profundidad, por páginas de size
+    // ordenadas por ID; la siguiente página se pide con after = nextCursor
+    @GetMapping("/{id}/subtree/products")
+    public ResponseEntity<Map<String, Object>> getSubtreeProducts(
+            @PathVariable("id") Integer id,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String after) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        List<Integer> subtreeIds = categoryTreeService.getSubtreeIds(id);
+        ProductPage productPage = productService.findByCategorySubtreeAfter(id, subtreeIds, ProductCursor.decode(after), size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", productPage.getProducts());
+        response.put("hasMore", productPage.hasMore());
+        response.put("nextCursor", productPage.hasMore() ? productPage.getNextCursor().encode() : null);
+        return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     // Obtener una categoría por ID
@@ -92,9 +153,15 @@ public class CategoryController {
 
     // Obtener categorías padre (sin categoría padre asignada)
     @GetMapping("/parent")
-    public ResponseEntity<List<Category>> getParentCategories() {
-        List<Category> parentCategories = categoryService.findParentCategories();
-        return new ResponseEntity<>(parentCategories, HttpStatus.OK);
+    public ResponseEntity<byte[]> getParentCategories(WebRequest request) {
+        return serializedResponseCache.respond(request, "categories:parent", CatalogVersions.CATEGORIES,
+                categoryService::findParentCategories);
+    }
+
+    // Simulación de la eliminación: cuántos productos y subcategorías se moverían
+    @GetMapping("/{id}/delete-preview")
+    public ResponseEntity<Map<String, Object>> previewDeleteCategory(@PathVariable("id") Integer id) {
+        return new ResponseEntity<>(categoryService.previewDelete(id), HttpStatus.OK);
     }
 
     @DeleteMapping("/{id}")
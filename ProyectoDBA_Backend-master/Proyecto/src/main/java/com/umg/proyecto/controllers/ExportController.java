@@ -0,0 +1,61 @@
+package com.umg.proyecto.controllers;
+
+import com.umg.proyecto.services.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Exporta products, orders u order-details como NDJSON o CSV, en streaming.
+     * Para reanudar una descarga cortada se pide de nuevo con afterId = último ID recibido
+     * (en order-details, el ORDER_ID de la última orden recibida completa).
+     */
+    @GetMapping("/{entity}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable("entity") String entity,
+            @RequestParam(defaultValue = ExportService.NDJSON) String format,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!exportService.supports(entity, format)) {
+            throw new IllegalArgumentException("Exportación no soportada: " + entity + " en formato " + format);
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024, true);
+                exportService.export(entity, format, afterId, limit, gzipOut);
+                gzipOut.finish();
+            } else {
+                exportService.export(entity, format, afterId, limit, out);
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(ExportService.CSV.equals(format)
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(entity + "." + format).build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
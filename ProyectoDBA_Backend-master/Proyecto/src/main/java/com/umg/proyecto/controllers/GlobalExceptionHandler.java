@@ -1,6 +1,8 @@
 package com.umg.proyecto.controllers;
 
 
+import com.umg.proyecto.services.InsufficientStockException;
+import com.umg.proyecto.services.OrderLineException;
 import org.springframework.boot.context.config.ConfigDataResourceNotFoundException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -48,6 +50,27 @@ public class GlobalExceptionHandler {
         return errorResponse;
     }
 
+    // Reserva de stock fallida: se devuelven los productos que no alcanzaron
+    @ExceptionHandler(InsufficientStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> handleInsufficientStockException(InsufficientStockException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getMessage());
+        errorResponse.put("productIds", ex.getProductIds());
+        return errorResponse;
+    }
+
+    // Línea de orden rechazada por la base (por ejemplo, producto inexistente)
+    @ExceptionHandler(OrderLineException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleOrderLineException(OrderLineException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getMessage());
+        errorResponse.put("line", ex.getLine());
+        errorResponse.put("productId", ex.getProductId());
+        return errorResponse;
+    }
+
     @ExceptionHandler(RuntimeException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> RuntimeExceptionException(RuntimeException ex) {
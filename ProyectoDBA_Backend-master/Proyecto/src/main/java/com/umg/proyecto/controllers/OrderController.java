@@ -1,16 +1,26 @@
 package com.umg.proyecto.controllers;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import com.umg.proyecto.models.CheckoutStatus;
 import com.umg.proyecto.models.Order;
+import com.umg.proyecto.models.OrderCursor;
 import com.umg.proyecto.models.OrderDetail;
+import com.umg.proyecto.models.OrderQuery;
 import com.umg.proyecto.models.OrderRequest;
+import com.umg.proyecto.services.CheckoutQueueService;
 import com.umg.proyecto.services.OrderDetailService;
+import com.umg.proyecto.services.InsufficientStockException;
+import com.umg.proyecto.services.OrderLineException;
 import com.umg.proyecto.services.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -21,12 +31,33 @@ public class OrderController {
 
     @Autowired
     private OrderDetailService orderDetailService;
-    @CrossOrigin(origins = "http://localhost:3000")
-    // Obtener todas las órdenes
+
+    @Autowired
+    private CheckoutQueueService checkoutQueueService;
+
+    // Encabezado con el cursor de la siguiente página del historial de órdenes
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Órdenes paginadas por keyset, de la más reciente a la más antigua (sort=asc para el orden inverso).
+     * Filtros opcionales por estado, rango de fechas (yyyy-MM-dd) y rango de total. Si hay más resultados,
+     * el encabezado X-Next-Cursor trae el valor para el parámetro after de la siguiente página.
+     */
+    @CrossOrigin(origins = "http://localhost:3000", exposedHeaders = NEXT_CURSOR_HEADER)
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.findAll();
-        return new ResponseEntity<>(orders, HttpStatus.OK);
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Float minTotal,
+            @RequestParam(required = false) Float maxTotal,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        OrderQuery query = buildQuery(null, status, from, to, minTotal, maxTotal, sort, after, limit);
+        return page(query, limit);
     }
 
     // Obtener una orden por ID
@@ -36,11 +67,52 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 
-    // Obtener todas las órdenes de un cliente
+    // Historial de un cliente, con los mismos filtros y paginación que /api/orders
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getOrdersByCustomerId(@PathVariable("customerId") Integer customerId) {
-        List<Order> orders = orderService.findByCustomerId(customerId);
-        return new ResponseEntity<>(orders, HttpStatus.OK);
+    public ResponseEntity<List<Order>> getOrdersByCustomerId(
+            @PathVariable("customerId") Integer customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Float minTotal,
+            @RequestParam(required = false) Float maxTotal,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        OrderQuery query = buildQuery(customerId, status, from, to, minTotal, maxTotal, sort, after, limit);
+        return page(query, limit);
+    }
+
+    private OrderQuery buildQuery(Integer customerId, String status, LocalDate from, LocalDate to,
+                                  Float minTotal, Float maxTotal, String sort, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        if (!"asc".equalsIgnoreCase(sort) && !"desc".equalsIgnoreCase(sort)) {
+            throw new IllegalArgumentException("sort debe ser asc o desc");
+        }
+        OrderQuery query = new OrderQuery();
+        query.setCustomerId(customerId);
+        query.setStatus(status);
+        query.setFromDate(from);
+        query.setToDate(to);
+        query.setMinTotal(minTotal);
+        query.setMaxTotal(maxTotal);
+        query.setAscending("asc".equalsIgnoreCase(sort));
+        query.setCursor(OrderCursor.decode(after));
+        query.setLimit(limit + 1);  // Una fila de más: si llega, hay otra página
+        return query;
+    }
+
+    // Recorta la fila de más y, si llegó, informa el cursor de la siguiente página
+    private ResponseEntity<List<Order>> page(OrderQuery query, int limit) {
+        List<Order> orders = orderService.searchOrders(query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            response.header(NEXT_CURSOR_HEADER, OrderCursor.after(orders.get(limit - 1)).encode());
+        }
+        return response.body(orders);
     }
 
     // Crear una nueva orden
@@ -65,9 +137,13 @@ public class OrderController {
 //        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 //    }
 
-    // Obtener todos los detalles de una orden
+    // Obtener todos los detalles de una orden; con expand=product incluye el producto y su marca
     @GetMapping("/{orderId}/details")
-    public ResponseEntity<List<OrderDetail>> getOrderDetails(@PathVariable("orderId") Integer orderId) {
+    public ResponseEntity<List<?>> getOrderDetails(@PathVariable("orderId") Integer orderId,
+                                                   @RequestParam(required = false) String expand) {
+        if ("product".equals(expand)) {
+            return new ResponseEntity<>(orderDetailService.findExpandedByOrderId(orderId), HttpStatus.OK);
+        }
         List<OrderDetail> orderDetails = orderDetailService.findByOrderId(orderId);
         return new ResponseEntity<>(orderDetails, HttpStatus.OK);
     }
@@ -101,11 +177,32 @@ public class OrderController {
         try {
             orderService.processOrder(orderRequest);
             return new ResponseEntity<>("Order processed successfully", HttpStatus.CREATED);
+        } catch (InsufficientStockException | OrderLineException e) {
+            // GlobalExceptionHandler responde con el detalle estructurado (productos o línea que fallaron)
+            throw e;
         } catch (Exception e) {
             return new ResponseEntity<>("Error processing order: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Checkout asíncrono: se valida y encola la orden; un trabajador la procesa en segundo plano
+    @PostMapping("/checkout/async")
+    public ResponseEntity<Map<String, Object>> checkoutAsync(@RequestBody OrderRequest orderRequest) {
+        String token = checkoutQueueService.enqueue(orderRequest);
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", token);
+        response.put("status", CheckoutQueueService.PENDING);
+        response.put("statusUrl", "/api/orders/checkout/" + token);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+    // Estado de un checkout asíncrono (el cliente consulta hasta COMPLETED, REJECTED o FAILED)
+    @GetMapping("/checkout/{token}")
+    public ResponseEntity<CheckoutStatus> getCheckoutStatus(@PathVariable("token") String token) {
+        CheckoutStatus status = checkoutQueueService.findStatus(token);
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+
     @DeleteMapping("/{orderId}")
     public ResponseEntity<String> deleteOrderAndDetails(@PathVariable("orderId") Integer orderId) {
         try {
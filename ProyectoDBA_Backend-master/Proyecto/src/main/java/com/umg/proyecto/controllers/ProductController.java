@@ -1,15 +1,30 @@
 package com.umg.proyecto.controllers;
 
+import com.umg.proyecto.cache.CatalogVersions;
+import com.umg.proyecto.cache.SerializedResponseCache;
+import com.umg.proyecto.models.ImportReport;
 import com.umg.proyecto.models.Product;
+import com.umg.proyecto.models.ProductCursor;
+import com.umg.proyecto.models.ProductPage;
+import com.umg.proyecto.models.Suggestion;
+import com.umg.proyecto.search.FacetIndex;
+import com.umg.proyecto.search.SuggestionIndex;
+import com.umg.proyecto.services.ProductCountService;
+import com.umg.proyecto.services.ProductImportService;
 import com.umg.proyecto.services.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/products")
@@ -18,11 +33,41 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private SerializedResponseCache serializedResponseCache;
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    private static final int MAX_BATCH_IDS = 1000;
+
+    // Tamaños de primera página que se guardan serializados; más allá se arma la respuesta en cada petición
+    private static final int MAX_CACHED_PAGE_SIZE = 100;
+
+    // Tamaño máximo de página: más filas se traerían de una vez a memoria con ROWNUM <= size + 1
+    private static final int MAX_PAGE_SIZE = 200;
+
     // Obtener todos los productos
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<Product>> getAllProducts(WebRequest request) {
+        // Si el cliente ya tiene esta versión se responde 304 sin consultar la base
+        if (catalogVersions.checkNotModified(request, CatalogVersions.PRODUCTS)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<Product> products = productService.findAll();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
     }
 
     // Obtener un producto por ID
@@ -53,48 +98,155 @@ public class ProductController {
       productService.delete(id);
       return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
-    // **Nuevo método para buscar productos por palabra clave**
+    // Obtener varios productos por ID en una sola petición (carrito, detalle de orden)
+    @PostMapping("/batch")
+    public ResponseEntity<List<Product>> getProductsBatch(@RequestBody List<Integer> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("Se permiten como máximo " + MAX_BATCH_IDS + " IDs por petición");
+        }
+        List<Integer> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        return new ResponseEntity<>(productService.findByIds(distinctIds), HttpStatus.OK);
+    }
+
+    /**
+     * Importación masiva: el cuerpo es un CSV con encabezado o NDJSON (un producto por línea) y se procesa en streaming.
+     * Mientras corre, el progreso se consulta en /import/{jobId} con el jobId enviado aquí.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportReport> importProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String jobId,
+            InputStream body) {
+        if (!"csv".equals(format) && !"ndjson".equals(format)) {
+            throw new IllegalArgumentException("Formato no soportado: " + format);
+        }
+        ImportReport report = productImportService.importProducts(body, format, jobId);
+        HttpStatus status = "COMPLETED".equals(report.getStatus()) ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY;
+        return new ResponseEntity<>(report, status);
+    }
+
+    // Progreso de una importación en curso o reciente
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportReport> getImportProgress(@PathVariable("jobId") String jobId) {
+        ImportReport report = productImportService.findJob(jobId);
+        if (report == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    // Buscar productos por palabra clave (índice invertido, ordenado por relevancia)
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<List<Product>> searchProducts(@PathVariable("keyword") String keyword) {
-        List<Product> products = productService.searchByKeyword(keyword);
+    public ResponseEntity<List<Product>> searchProducts(
+            @PathVariable("keyword") String keyword,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        List<Product> products = productService.searchByKeyword(keyword, offset, limit);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
+    // Autocompletar mientras se escribe: productos, marcas y categorías que empiezan con el prefijo
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return new ResponseEntity<>(suggestionIndex.suggest(prefix, limit), HttpStatus.OK);
+    }
+
+    // Navegación por facetas: filtros combinados de marca, categoría, temporada y rango de precio con sus conteos
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> browseFacets(
+            @RequestParam(required = false) List<Integer> brand,
+            @RequestParam(required = false) List<Integer> category,
+            @RequestParam(required = false) List<Integer> season,
+            @RequestParam(required = false) List<Integer> price,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (!facetIndex.isReady()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "El índice de facetas se está construyendo.");
+            return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Map<String, Object> response = facetIndex.search(brand, category, season, price, offset, limit);
+        @SuppressWarnings("unchecked")
+        List<Integer> productIds = (List<Integer>) response.remove("productIds");
+        response.put("products", productService.findByIds(productIds));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @GetMapping("/filter")
     public ResponseEntity<Map<String, Object>> filterProducts(
             @RequestParam int minPrice,
             @RequestParam int maxPrice,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "50") int size
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String after
     ) {
-        List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice, page, size);
-        int totalProducts = productService.countProductsByPriceRange(minPrice, maxPrice);
-        boolean hasMore = page * size < totalProducts;
+        checkPage(page, size);
+        // Ambos modos ordenan por (precio, ID): desde cualquier página se puede seguir con nextCursor
+        ProductPage productPage;
+        if (after != null) {
+            productPage = productService.getProductsByPriceRangeAfter(minPrice, maxPrice, ProductCursor.decode(after), size);
+        } else {
+            productPage = productService.getProductsByPriceRangePage(minPrice, maxPrice, page, size);
+        }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("products", products);
-        response.put("totalProducts", totalProducts);
-        response.put("hasMore", hasMore);
+        response.put("products", productPage.getProducts());
+        response.put("totalProducts", productCountService.countByPriceRange(minPrice, maxPrice));
+        response.put("totalApproximate", true);
+        response.put("hasMore", productPage.hasMore());
+        response.put("nextCursor", productPage.hasMore() ? productPage.getNextCursor().encode() : null);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
 
     @GetMapping("/paginated")
-    public ResponseEntity<Map<String, Object>> getPaginatedProducts(
+    public ResponseEntity<?> getPaginatedProducts(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "52") int size
+            @RequestParam(defaultValue = "52") int size,
+            @RequestParam(required = false) String after,
+            WebRequest request
     ) {
-        int totalProducts = productService.countAllProducts(); // Llamada al método que cuenta los productos
-        List<Product> products = (List<Product>) getPaginatedProducts(page, size);
-        boolean hasMore = products.size() == size;
+        checkPage(page, size);
+        if (after == null && page == 1 && size <= MAX_CACHED_PAGE_SIZE) {
+            // La primera página es la más pedida: se sirve serializada hasta la próxima escritura de productos
+            return serializedResponseCache.respond(request, "products:first:" + size, CatalogVersions.PRODUCTS,
+                    () -> buildPage(page, size, null));
+        }
+        return new ResponseEntity<>(buildPage(page, size, after), HttpStatus.OK);
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("products", products);
-        response.put("totalProducts", totalProducts);
-        response.put("hasMore", hasMore);
+    private static void checkPage(int page, int size) {
+        if (page < 1) {
+            throw new IllegalArgumentException("page debe ser mayor o igual a 1");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+    private Map<String, Object> buildPage(int page, int size, String after) {
+        ProductPage productPage;
+        if (after != null) {
+            // Modo cursor: búsqueda por rango de índice a partir del último ID
+            productPage = productService.getProductsAfter(ProductCursor.decode(after), size);
+        } else if (page == 1) {
+            // La primera página equivale a un cursor vacío, así que se resuelve por keyset
+            productPage = productService.getProductsAfter(null, size);
+        } else {
+            // Adaptador para clientes que siguen enviando page/size
+            productPage = productService.getProductsPage(page, size);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", productPage.getProducts());
+        response.put("totalProducts", productCountService.countAll()); // Total en memoria, sin COUNT(*) por petición
+        response.put("hasMore", productPage.hasMore());
+        // Ambos modos ordenan por ID, por lo que el cliente puede continuar con el cursor desde cualquier página
+        response.put("nextCursor", productPage.hasMore() ? productPage.getNextCursor().encode() : null);
+        return response;
     }
 
     @PutMapping("/{id}/category/{categoryId}")
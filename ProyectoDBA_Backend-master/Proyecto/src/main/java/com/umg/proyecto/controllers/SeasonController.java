@@ -1,13 +1,16 @@
 package com.umg.proyecto.controllers;
 
+import com.umg.proyecto.cache.CatalogVersions;
 import com.umg.proyecto.models.Product;
 import com.umg.proyecto.models.Season;
 import com.umg.proyecto.services.SeasonProductService;
 import com.umg.proyecto.services.SeasonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,6 +24,9 @@ public class SeasonController {
     @Autowired
     private SeasonProductService seasonProductService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     // Obtener todas las temporadas activas
     @GetMapping
     public ResponseEntity<List<Season>> getAllSeasons() {
@@ -80,9 +86,13 @@ public class SeasonController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
     @GetMapping("/all")
-    public ResponseEntity<List<Season>> getAllSeasonsUnfiltered() {
+    public ResponseEntity<List<Season>> getAllSeasonsUnfiltered(WebRequest request) {
+        // Si el cliente ya tiene esta versión se responde 304 sin consultar la base
+        if (catalogVersions.checkNotModified(request, CatalogVersions.SEASONS)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<Season> seasons = seasonService.findAllSeasons();
-        return new ResponseEntity<>(seasons, HttpStatus.OK);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(seasons);
     }
 
 }
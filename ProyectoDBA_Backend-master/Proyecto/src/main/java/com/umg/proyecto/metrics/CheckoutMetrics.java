@@ -0,0 +1,40 @@
+package com.umg.proyecto.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempos por etapa del checkout (checkout.stage): registro del cliente, orden, detalles, reserva de stock
+ * y, en el modo asíncrono, el procesamiento completo de una solicitud de la cola.
+ */
+@Component
+public class CheckoutMetrics {
+
+    public static final String STAGE_TIMER = "checkout.stage";
+
+    public enum Stage {
+        CUSTOMER, ORDER, DETAILS, STOCK, ASYNC
+    }
+
+    // Un Timer por etapa, creado al inicio: medir no consulta el registro
+    private final Timer[] timers = new Timer[Stage.values().length];
+
+    public CheckoutMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            timers[stage.ordinal()] = Timer.builder(STAGE_TIMER)
+                    .description("Duración de cada etapa del checkout")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    // Registra la etapa que empezó en startNanos y devuelve el instante actual, inicio de la siguiente
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        timers[stage.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+}
@@ -0,0 +1,217 @@
+package com.umg.proyecto.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * JdbcTemplate que mide cada sentencia: duración (db.statement, con outcome success/error)
+ * y filas devueltas o afectadas (db.statement.rows), etiquetadas por el texto SQL normalizado.
+ * Sobrescribe los métodos a los que llegan todas las variantes de query/update/batchUpdate.
+ * Los medidores se crean una vez por sentencia y se guardan: registrar una medición no busca en el registro.
+ */
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+
+    public static final String STATEMENT_TIMER = "db.statement";
+    public static final String ROWS_SUMMARY = "db.statement.rows";
+
+    private static final String OTHER = "other";
+    private static final int MAX_LABEL_LENGTH = 160;
+    // Las listas IN de tamaño variable se cuentan como una sola sentencia
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry registry;
+    private final int maxStatements;
+
+    // Por operación, SQL tal como llega -> medidores; las etiquetas normalizadas se comparten entre variantes
+    private final Map<Operation, Map<String, StatementMeters>> metersBySql = new EnumMap<>(Operation.class);
+    private final Map<String, StatementMeters> metersByLabel = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> creatorNames = new ConcurrentHashMap<>();
+
+    // Evita medir dos veces cuando un método sobrescrito llama a otro
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public InstrumentedJdbcTemplate(DataSource dataSource, MeterRegistry registry, int maxStatements) {
+        super(dataSource);
+        this.registry = registry;
+        this.maxStatements = maxStatements;
+        for (Operation operation : Operation.values()) {
+            metersBySql.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void execute(String sql) throws DataAccessException {
+        timed(sql, Operation.EXECUTE, () -> {
+            super.execute(sql);
+            return null;
+        });
+    }
+
+    @Override
+    public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) throws DataAccessException {
+        return timed(sqlOf(psc), Operation.EXECUTE, () -> super.execute(psc, action));
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        return timed(sql, Operation.QUERY, () -> super.query(sql, rse));
+    }
+
+    @Override
+    public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) throws DataAccessException {
+        return timed(sqlOf(psc), Operation.QUERY, () -> super.query(psc, pss, rse));
+    }
+
+    @Override
+    public int update(String sql) throws DataAccessException {
+        return timed(sql, Operation.UPDATE, () -> super.update(sql));
+    }
+
+    @Override
+    protected int update(PreparedStatementCreator psc, PreparedStatementSetter pss) throws DataAccessException {
+        return timed(sqlOf(psc), Operation.UPDATE, () -> super.update(psc, pss));
+    }
+
+    @Override
+    public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+        return timed(sqlOf(psc), Operation.UPDATE, () -> super.update(psc, generatedKeyHolder));
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+        return timed(sql, Operation.BATCH, () -> super.batchUpdate(sql, pss));
+    }
+
+    private <T> T timed(String sql, Operation operation, Supplier<T> call) {
+        int[] level = depth.get();
+        if (level[0] > 0) {
+            return call.get();
+        }
+        StatementMeters meters = meters(sql, operation);
+        level[0]++;
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            meters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            long rows = rowsOf(operation, result);
+            if (rows >= 0) {
+                meters.rows.record(rows);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            meters.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            level[0]--;
+        }
+    }
+
+    private StatementMeters meters(String sql, Operation operation) {
+        Map<String, StatementMeters> bySql = metersBySql.get(operation);
+        StatementMeters meters = bySql.get(sql);
+        if (meters != null) {
+            return meters;
+        }
+        String label = metersByLabel.size() < maxStatements ? label(sql) : OTHER;
+        meters = metersByLabel.computeIfAbsent(operation.tag + ':' + label, k -> new StatementMeters(registry, label, operation));
+        if (bySql.size() < maxStatements * 4) {
+            bySql.put(sql, meters);
+        }
+        return meters;
+    }
+
+    // Las sentencias armadas con lambdas no exponen su SQL: se identifican por la clase que las creó
+    private String sqlOf(PreparedStatementCreator psc) {
+        if (psc instanceof SqlProvider provider && provider.getSql() != null) {
+            return provider.getSql();
+        }
+        return creatorNames.computeIfAbsent(psc.getClass(), type -> {
+            String name = type.getName();
+            int lambda = name.indexOf("$$Lambda");
+            if (lambda >= 0) {
+                name = name.substring(0, lambda) + " (lambda)";
+            }
+            return name.substring(name.lastIndexOf('.') + 1);
+        });
+    }
+
+    private static String label(String sql) {
+        String label = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        label = PLACEHOLDER_LIST.matcher(label).replaceAll("?");
+        return label.length() <= MAX_LABEL_LENGTH ? label : label.substring(0, MAX_LABEL_LENGTH);
+    }
+
+    // Filas devueltas o afectadas; -1 si el resultado no las indica (por ejemplo con RowCallbackHandler)
+    private static long rowsOf(Operation operation, Object result) {
+        if (operation == Operation.QUERY) {
+            return result instanceof Collection<?> collection ? collection.size() : -1;
+        }
+        if (operation == Operation.UPDATE && result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (operation == Operation.BATCH && result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                // ojdbc puede devolver SUCCESS_NO_INFO (-2) por sentencia del lote
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private enum Operation {
+        QUERY("query"), UPDATE("update"), BATCH("batch"), EXECUTE("execute");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final class StatementMeters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        private StatementMeters(MeterRegistry registry, String label, Operation operation) {
+            this.success = timer(registry, label, operation, "success");
+            this.error = timer(registry, label, operation, "error");
+            this.rows = DistributionSummary.builder(ROWS_SUMMARY)
+                    .description("Filas devueltas o afectadas por sentencia")
+                    .tag("statement", label)
+                    .tag("operation", operation.tag)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String label, Operation operation, String outcome) {
+            return Timer.builder(STATEMENT_TIMER)
+                    .description("Duración de las sentencias SQL ejecutadas con JdbcTemplate")
+                    .tag("statement", label)
+                    .tag("operation", operation.tag)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryNode {
+    private Integer id;
+    private String name;
+    private Integer parentCategoryId;
+    private List<CategoryNode> children;
+}
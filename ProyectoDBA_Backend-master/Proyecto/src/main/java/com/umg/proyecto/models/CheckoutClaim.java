@@ -0,0 +1,18 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Solicitud de checkout reclamada por un trabajador. El número de intento identifica el reclamo:
+ * si la solicitud vuelve a la cola y otro trabajador la toma, el intento anterior ya no puede cerrarla.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutClaim {
+    private String token;
+    private String payload;
+    private int attempt;
+}
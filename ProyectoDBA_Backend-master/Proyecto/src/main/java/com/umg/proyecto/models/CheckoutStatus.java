@@ -0,0 +1,19 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutStatus {
+    private String token;
+    private String status;    // PENDING, PROCESSING, COMPLETED, REJECTED o FAILED
+    private Integer orderId;  // Solo cuando la orden ya fue creada
+    private String error;
+    private Date createdAt;
+    private Date updatedAt;
+}
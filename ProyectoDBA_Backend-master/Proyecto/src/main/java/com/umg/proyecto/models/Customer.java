@@ -1,6 +1,6 @@
 package com.umg.proyecto.models;
 
-
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,5 +16,7 @@ public class Customer {
     private String address;
     private Character status;
     private String email;
+    // Solo de entrada (registro, actualización); las consultas no la devuelven
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String password;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpandedOrderDetail {
+    private Integer orderId;
+    private Integer productId;
+    private Integer qty;
+    private Product product;  // Producto con su marca, resuelto en la misma consulta
+}
@@ -0,0 +1,24 @@
+package com.umg.proyecto.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Progreso de una importación; se actualiza mientras corre y se puede consultar desde otra petición
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private String jobId;
+    private volatile String status;  // RUNNING, COMPLETED o FAILED
+    private volatile long rowsRead;
+    private volatile long rowsImported;
+    private volatile long rowsRejected;
+    private volatile long chunksCommitted;
+    private List<String> rejections = new CopyOnWriteArrayList<>();  // Primeras filas rechazadas con el motivo
+    private Date startedAt;
+    private volatile Date finishedAt;
+    private volatile String error;
+}
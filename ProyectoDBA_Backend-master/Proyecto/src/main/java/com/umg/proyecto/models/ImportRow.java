@@ -0,0 +1,20 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRow {
+    private String name;         // Clave natural: si ya existe un producto con ese nombre, se actualiza
+    private Float price;
+    private String description;
+    private Integer stock;
+    private String image;
+    private String brand;        // Nombre de la marca (o brandId)
+    private Integer brandId;
+    private String category;     // Nombre de la categoría (o categoryId), opcional
+    private Integer categoryId;
+}
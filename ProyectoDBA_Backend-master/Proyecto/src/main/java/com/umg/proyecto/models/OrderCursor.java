@@ -0,0 +1,46 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por keyset de órdenes, ordenadas por (PURCHASE_DATE, ID).
+ * Guarda la fecha completa (con hora) y el ID de la última orden entregada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCursor {
+    private long lastPurchaseTime;  // Milisegundos desde la época
+    private Integer lastId;
+
+    // Construye el cursor a partir de la última fila entregada
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getPurchaseDate().getTime(), order.getId());
+    }
+
+    // Serializa el cursor como token Base64 seguro para URL
+    public String encode() {
+        String raw = lastPurchaseTime + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Interpreta el token recibido; un token vacío significa "desde el inicio"
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new OrderCursor(Long.parseLong(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + token);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.umg.proyecto.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros y posición de una página del historial de órdenes. Los campos nulos no filtran.
+ * Las fechas incluyen el día completo; el cursor solo es válido con los mismos filtros y orden.
+ */
+@Data
+@NoArgsConstructor
+public class OrderQuery {
+    private Integer customerId;
+    private String status;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Float minTotal;
+    private Float maxTotal;
+    private boolean ascending;  // Por defecto las más recientes primero
+    private OrderCursor cursor;
+    private int limit;
+}
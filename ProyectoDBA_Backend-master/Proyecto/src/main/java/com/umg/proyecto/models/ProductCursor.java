@@ -0,0 +1,46 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por keyset (seek) de productos.
+ * Guarda el último ID entregado y, si el listado se ordena por precio, el precio de esa fila tal como
+ * está en la columna (leído con getBigDecimal): el Float del modelo no siempre vuelve al mismo valor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCursor {
+    private Integer lastId;
+    private BigDecimal lastPrice;  // Null cuando el orden es solo por ID
+
+    // Serializa el cursor como token Base64 seguro para URL
+    public String encode() {
+        String raw = lastPrice == null ? String.valueOf(lastId) : lastPrice.toPlainString() + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Interpreta el token recibido; un token vacío significa "desde el inicio"
+    public static ProductCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                return new ProductCursor(Integer.valueOf(raw), null);
+            }
+            return new ProductCursor(Integer.valueOf(raw.substring(separator + 1)),
+                    new BigDecimal(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + token);
+        }
+    }
+}
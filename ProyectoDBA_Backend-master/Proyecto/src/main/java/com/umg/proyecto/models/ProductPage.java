@@ -0,0 +1,23 @@
+package com.umg.proyecto.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Una página de productos y el cursor para pedir la siguiente (null si no hay más).
+ * El cursor lo arma el servicio con los valores exactos de la base, no con los del modelo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> products;
+    private ProductCursor nextCursor;
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
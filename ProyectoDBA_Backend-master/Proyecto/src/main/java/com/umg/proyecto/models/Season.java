@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.Date;
 
 @Data
@@ -17,6 +18,8 @@ public class Season {
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
     private Date endDate;
+    // Los listados no la incluyen
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String description;
     private Character status;
     private String image;
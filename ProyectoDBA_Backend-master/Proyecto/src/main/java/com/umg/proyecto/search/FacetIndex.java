@@ -0,0 +1,394 @@
+package com.umg.proyecto.search;
+
+import com.umg.proyecto.services.CategoryTreeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de facetas en memoria: marca, categoría, temporada y rango de precio.
+ * Cada producto recibe un ordinal denso y cada valor de faceta guarda un BitSet de ordinales;
+ * filtrar es un AND/OR de bits y contar es un cardinality(), sin tocar la base.
+ */
+@Component
+public class FacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetIndex.class);
+
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+    public static final String SEASON = "season";
+    public static final String PRICE = "price";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    // Límites inferiores de los rangos de precio; el último rango no tiene tope
+    @Value("${catalog.facets.price-buckets:0,50,100,250,500,1000}")
+    private int[] priceBounds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private State state = new State();
+    private volatile boolean ready = false;
+
+    // Escrituras aplicadas mientras corre una reconstrucción (null si no hay ninguna); protegido por lock
+    private Map<Integer, Facets> writesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("No se pudo construir el índice de facetas: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reconstrucción completa: compacta los ordinales de productos borrados y corrige cualquier
+     * escritura que no haya pasado por los servicios (por ejemplo, cargas directas en la base).
+     * Las lecturas van sin bloqueo; lo que se escribió en el índice mientras tanto se vuelve a
+     * aplicar sobre el estado nuevo antes de publicarlo, para no perderlo.
+     */
+    @Scheduled(fixedDelayString = "${catalog.facets.rebuild-ms:900000}", initialDelayString = "${catalog.facets.rebuild-ms:900000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                rebuildState();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    writesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void rebuildState() {
+        State fresh = new State();
+        jdbcTemplate.query("SELECT ID, BRAND_ID, PRICE FROM PRODUCT ORDER BY ID", rs -> {
+            Integer brandId = rs.getObject("BRAND_ID") != null ? rs.getInt("BRAND_ID") : null;
+            fresh.put(rs.getInt("ID"), brandId, bucketOf(rs.getFloat("PRICE")), new HashSet<>(), new HashSet<>());
+        });
+        jdbcTemplate.query("SELECT CATEGORY_ID, PRODUCT_ID FROM CATEGORY_PRODUCT", rs -> {
+            fresh.link(fresh.categories, rs.getInt("PRODUCT_ID"), rs.getInt("CATEGORY_ID"));
+        });
+        jdbcTemplate.query("SELECT SEASON_ID, PRODUCT_ID FROM SEASON_PRODUCT", rs -> {
+            fresh.link(fresh.seasons, rs.getInt("PRODUCT_ID"), rs.getInt("SEASON_ID"));
+        });
+
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild.forEach((productId, facets) -> apply(fresh, productId, facets));
+            state = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de facetas reconstruido con {} productos", fresh.docs.size());
+    }
+
+    // Vuelve a leer las facetas de un producto (o lo quita si ya no existe); se llama al confirmar una escritura
+    public void reloadProduct(Integer productId) {
+        List<Object[]> rows = jdbcTemplate.query("SELECT BRAND_ID, PRICE FROM PRODUCT WHERE ID = ?",
+                (rs, rowNum) -> new Object[]{rs.getObject("BRAND_ID") != null ? rs.getInt("BRAND_ID") : null, rs.getFloat("PRICE")},
+                productId);
+        if (rows.isEmpty()) {
+            removeProduct(productId);
+            return;
+        }
+        Set<Integer> categoryIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT CATEGORY_ID FROM CATEGORY_PRODUCT WHERE PRODUCT_ID = ?", Integer.class, productId));
+        Set<Integer> seasonIds = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT SEASON_ID FROM SEASON_PRODUCT WHERE PRODUCT_ID = ?", Integer.class, productId));
+        write(productId, new Facets((Integer) rows.get(0)[0], bucketOf((Float) rows.get(0)[1]), categoryIds, seasonIds));
+    }
+
+    public void removeProduct(Integer productId) {
+        write(productId, null);
+    }
+
+    // facets == null quita el producto
+    private void write(Integer productId, Facets facets) {
+        lock.writeLock().lock();
+        try {
+            apply(state, productId, facets);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.remove(productId);  // conserva el orden de la última escritura
+                writesDuringRebuild.put(productId, facets);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(State target, Integer productId, Facets facets) {
+        target.remove(productId);
+        if (facets != null) {
+            target.put(productId, facets.brandId, facets.bucket,
+                    new HashSet<>(facets.categoryIds), new HashSet<>(facets.seasonIds));
+        }
+    }
+
+    /**
+     * Productos que cumplen todos los filtros (dentro de una faceta los valores se combinan con OR)
+     * y conteos por valor de cada faceta. El conteo de una faceta aplica los filtros de las demás,
+     * así el cliente ve cuántos resultados tendría al agregar otro valor de la misma faceta.
+     * Un filtro de categoría incluye sus subcategorías, y el conteo de cada categoría también
+     * acumula los productos de sus descendientes, para que coincida con lo que devuelve filtrar por ella.
+     */
+    public Map<String, Object> search(Collection<Integer> brandIds, Collection<Integer> categoryIds,
+                                      Collection<Integer> seasonIds, Collection<Integer> priceBuckets,
+                                      int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, BitSet> subtrees = rollUpCategories();
+
+            Map<String, BitSet> filters = new LinkedHashMap<>();
+            filters.put(BRAND, state.union(state.brands, brandIds));
+            filters.put(CATEGORY, state.union(subtrees, categoryIds));
+            filters.put(SEASON, state.union(state.seasons, seasonIds));
+            filters.put(PRICE, state.union(state.prices, priceBuckets));
+
+            BitSet matches = intersect(filters, null);
+            List<Integer> productIds = new ArrayList<>(Math.max(0, Math.min(limit, matches.cardinality())));
+            int skipped = 0;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0 && productIds.size() < limit; ordinal = matches.nextSetBit(ordinal + 1)) {
+                if (skipped++ >= offset) {
+                    productIds.add(state.productIds.get(ordinal));
+                }
+            }
+
+            Map<String, Object> facets = new LinkedHashMap<>();
+            facets.put(BRAND, count(state.brands, intersect(filters, BRAND)));
+            facets.put(CATEGORY, count(subtrees, intersect(filters, CATEGORY)));
+            facets.put(SEASON, count(state.seasons, intersect(filters, SEASON)));
+            facets.put(PRICE, countPrices(intersect(filters, PRICE)));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("total", matches.cardinality());
+            result.put("productIds", productIds);
+            result.put("facets", facets);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bits de cada categoría más los de todas sus descendientes: se suma cada enlace directo a su ruta desde la raíz
+    private Map<Integer, BitSet> rollUpCategories() {
+        Map<Integer, BitSet> subtrees = new HashMap<>();
+        for (Map.Entry<Integer, BitSet> link : state.categories.entrySet()) {
+            for (Integer ancestorId : pathTo(link.getKey())) {
+                subtrees.computeIfAbsent(ancestorId, id -> new BitSet()).or(link.getValue());
+            }
+        }
+        return subtrees;
+    }
+
+    private List<Integer> pathTo(Integer categoryId) {
+        try {
+            List<Integer> path = new ArrayList<>();
+            categoryTreeService.getAncestors(categoryId).forEach(category -> path.add(category.getId()));
+            return path;
+        } catch (EmptyResultDataAccessException e) {
+            // Categoría aún no presente en el árbol en memoria: cuenta solo sus enlaces directos
+            return List.of(categoryId);
+        }
+    }
+
+    // AND de los productos vigentes con todos los filtros salvo el indicado
+    private BitSet intersect(Map<String, BitSet> filters, String excluded) {
+        BitSet result = (BitSet) state.live.clone();
+        for (Map.Entry<String, BitSet> filter : filters.entrySet()) {
+            if (filter.getValue() != null && !filter.getKey().equals(excluded)) {
+                result.and(filter.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> count(Map<Integer, BitSet> facet, BitSet base) {
+        List<Map<String, Object>> counts = new ArrayList<>();
+        for (Map.Entry<Integer, BitSet> value : new TreeMap<>(facet).entrySet()) {
+            int count = cardinalityOfAnd(base, value.getValue());
+            if (count > 0) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("id", value.getKey());
+                entry.put("count", count);
+                counts.add(entry);
+            }
+        }
+        return counts;
+    }
+
+    private List<Map<String, Object>> countPrices(BitSet base) {
+        List<Map<String, Object>> counts = new ArrayList<>();
+        for (int bucket = 0; bucket < priceBounds.length; bucket++) {
+            BitSet bits = state.prices.get(bucket);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("bucket", bucket);
+            entry.put("min", priceBounds[bucket]);
+            entry.put("max", bucket + 1 < priceBounds.length ? priceBounds[bucket + 1] : null);
+            entry.put("count", bits == null ? 0 : cardinalityOfAnd(base, bits));
+            counts.add(entry);
+        }
+        return counts;
+    }
+
+    private static int cardinalityOfAnd(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) b.clone();
+        copy.and(a);
+        return copy.cardinality();
+    }
+
+    private int bucketOf(float price) {
+        int bucket = 0;
+        while (bucket + 1 < priceBounds.length && price >= priceBounds[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    // Facetas leídas de la base para un producto, antes de asignarle ordinal
+    private static final class Facets {
+        private final Integer brandId;
+        private final int bucket;
+        private final Set<Integer> categoryIds;
+        private final Set<Integer> seasonIds;
+
+        private Facets(Integer brandId, int bucket, Set<Integer> categoryIds, Set<Integer> seasonIds) {
+            this.brandId = brandId;
+            this.bucket = bucket;
+            this.categoryIds = categoryIds;
+            this.seasonIds = seasonIds;
+        }
+    }
+
+    // Facetas de un producto, para poder sacarlo de sus bitsets al actualizarlo
+    private static final class Doc {
+        private final int ordinal;
+        private final Integer brandId;
+        private final int bucket;
+        private final Set<Integer> categoryIds;
+        private final Set<Integer> seasonIds;
+
+        private Doc(int ordinal, Integer brandId, int bucket, Set<Integer> categoryIds, Set<Integer> seasonIds) {
+            this.ordinal = ordinal;
+            this.brandId = brandId;
+            this.bucket = bucket;
+            this.categoryIds = categoryIds;
+            this.seasonIds = seasonIds;
+        }
+    }
+
+    private static final class State {
+        private final Map<Integer, Doc> docs = new HashMap<>();
+        private final List<Integer> productIds = new ArrayList<>();  // ordinal -> ID de producto
+        private final BitSet live = new BitSet();                      // ordinales de productos existentes
+        private final Map<Integer, BitSet> brands = new HashMap<>();
+        private final Map<Integer, BitSet> categories = new HashMap<>();
+        private final Map<Integer, BitSet> seasons = new HashMap<>();
+        private final Map<Integer, BitSet> prices = new HashMap<>();
+
+        // Los ordinales no se reutilizan; la reconstrucción periódica los vuelve a compactar
+        private void put(Integer productId, Integer brandId, int bucket, Set<Integer> categoryIds, Set<Integer> seasonIds) {
+            int ordinal = productIds.size();
+            productIds.add(productId);
+            live.set(ordinal);
+            docs.put(productId, new Doc(ordinal, brandId, bucket, categoryIds, seasonIds));
+            if (brandId != null) {
+                bits(brands, brandId).set(ordinal);
+            }
+            bits(prices, bucket).set(ordinal);
+            categoryIds.forEach(categoryId -> bits(categories, categoryId).set(ordinal));
+            seasonIds.forEach(seasonId -> bits(seasons, seasonId).set(ordinal));
+        }
+
+        private void link(Map<Integer, BitSet> facet, Integer productId, Integer valueId) {
+            Doc doc = docs.get(productId);
+            if (doc != null) {
+                (facet == categories ? doc.categoryIds : doc.seasonIds).add(valueId);
+                bits(facet, valueId).set(doc.ordinal);
+            }
+        }
+
+        private void remove(Integer productId) {
+            Doc doc = docs.remove(productId);
+            if (doc == null) {
+                return;
+            }
+            live.clear(doc.ordinal);
+            if (doc.brandId != null) {
+                clear(brands, doc.brandId, doc.ordinal);
+            }
+            clear(prices, doc.bucket, doc.ordinal);
+            doc.categoryIds.forEach(categoryId -> clear(categories, categoryId, doc.ordinal));
+            doc.seasonIds.forEach(seasonId -> clear(seasons, seasonId, doc.ordinal));
+        }
+
+        // OR de los bitsets de los valores pedidos; null si la faceta no se filtra
+        private BitSet union(Map<Integer, BitSet> facet, Collection<Integer> valueIds) {
+            if (valueIds == null || valueIds.isEmpty()) {
+                return null;
+            }
+            BitSet result = new BitSet();
+            for (Integer valueId : valueIds) {
+                BitSet bits = facet.get(valueId);
+                if (bits != null) {
+                    result.or(bits);
+                }
+            }
+            return result;
+        }
+
+        private static BitSet bits(Map<Integer, BitSet> facet, Integer valueId) {
+            return facet.computeIfAbsent(valueId, id -> new BitSet());
+        }
+
+        private static void clear(Map<Integer, BitSet> facet, Integer valueId, int ordinal) {
+            BitSet bits = facet.get(valueId);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    facet.remove(valueId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.umg.proyecto.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Índice invertido en memoria sobre nombre, descripción y marca de los productos.
+ * Reemplaza las búsquedas LIKE '%palabra%' (que siempre recorren toda la tabla):
+ * se reconstruye desde la base al arrancar y se mantiene al día con las escrituras de ProductService.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    // Peso de cada campo en la relevancia
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Un término que solo empieza con la palabra buscada vale la mitad que una coincidencia exacta
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int MAX_PREFIX_TERMS = 256;
+
+    private static final String INDEX_COLUMNS = "SELECT p.ID, p.NAME, p.DESCRIPTION, p.BRAND_ID, b.NAME AS BRAND_NAME " +
+            "FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+
+    // término -> (ID de producto -> peso del término en ese producto)
+    private TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    private Map<Integer, Set<String>> docs = new HashMap<>();  // términos de cada producto, para poder sacarlo
+    private volatile boolean ready = false;
+
+    // Escrituras aplicadas mientras corre una reconstrucción (pesos, o null si se quitó); protegido por lock
+    private Map<Integer, Map<String, Float>> writesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            // Sin índice, ProductService sigue usando la búsqueda en base de datos
+            log.warn("No se pudo construir el índice de búsqueda: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reconstrucción completa desde PRODUCT; el índice anterior sigue atendiendo hasta el intercambio.
+     * La periódica recoge escrituras que no pasaron por los servicios. Lo indexado mientras se lee la tabla
+     * se vuelve a aplicar sobre el índice nuevo antes de publicarlo.
+     */
+    @Scheduled(fixedDelayString = "${catalog.search.rebuild-ms:900000}", initialDelayString = "${catalog.search.rebuild-ms:900000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                rebuildIndex();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    writesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        TreeMap<String, Map<Integer, Float>> freshPostings = new TreeMap<>();
+        Map<Integer, Set<String>> freshDocs = new HashMap<>();
+        jdbcTemplate.query(INDEX_COLUMNS, rs -> {
+            Map<String, Float> weights = weigh(rs.getString("NAME"), rs.getString("DESCRIPTION"), rs.getString("BRAND_NAME"));
+            addDoc(freshPostings, freshDocs, rs.getInt("ID"), weights);
+        });
+
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild.forEach((productId, weights) -> apply(freshPostings, freshDocs, productId, weights));
+            postings = freshPostings;
+            docs = freshDocs;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda reconstruido con {} productos", freshDocs.size());
+    }
+
+    // Agrega o reemplaza un producto en el índice
+    public void index(Integer productId, String name, String description, String brandName) {
+        write(productId, weigh(name, description, brandName));
+    }
+
+    public void remove(Integer productId) {
+        write(productId, null);
+    }
+
+    // weights == null quita el producto
+    private void write(Integer productId, Map<String, Float> weights) {
+        lock.writeLock().lock();
+        try {
+            apply(postings, docs, productId, weights);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.remove(productId);  // conserva el orden de la última escritura
+                writesDuringRebuild.put(productId, weights);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(TreeMap<String, Map<Integer, Float>> postings, Map<Integer, Set<String>> docs,
+                              Integer productId, Map<String, Float> weights) {
+        removeDoc(postings, docs, productId);
+        if (weights != null) {
+            addDoc(postings, docs, productId, weights);
+        }
+    }
+
+    // Cambió el nombre de una marca: se vuelven a indexar sus productos
+    public void reindexBrand(Integer brandId) {
+        jdbcTemplate.query(INDEX_COLUMNS + " WHERE p.BRAND_ID = ?", rs -> {
+            index(rs.getInt("ID"), rs.getString("NAME"), rs.getString("DESCRIPTION"), rs.getString("BRAND_NAME"));
+        }, brandId);
+    }
+
+    /**
+     * Busca productos que contengan todas las palabras de la consulta (exactas o como prefijo)
+     * y devuelve sus IDs ordenados por relevancia (tf por peso de campo por idf).
+     */
+    public List<Integer> search(String query, int offset, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = Math.max(1, docs.size());
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = scoreToken(token, docCount);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Float>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Integer, Float>comparingByKey()))
+                    .skip(Math.max(0, offset))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Float> scoreToken(String token, int docCount) {
+        Map<Integer, Float> result = new HashMap<>();
+        int expanded = 0;
+        // El rango [token, token + Character.MAX_VALUE) contiene el término exacto y todos los que empiezan con él
+        for (Map.Entry<String, Map<Integer, Float>> term : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = term.getKey().equals(token) ? 1.0f : PREFIX_FACTOR;
+            Map<Integer, Float> posting = term.getValue();
+            float idf = (float) Math.log(1.0 + (double) docCount / posting.size());
+            for (Map.Entry<Integer, Float> entry : posting.entrySet()) {
+                result.merge(entry.getKey(), entry.getValue() * idf * factor, Math::max);
+            }
+            if (++expanded >= MAX_PREFIX_TERMS) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Float> weigh(String name, String description, String brandName) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String token : TextNormalizer.tokenize(name)) {
+            weights.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : TextNormalizer.tokenize(brandName)) {
+            weights.merge(token, BRAND_WEIGHT, Float::sum);
+        }
+        for (String token : TextNormalizer.tokenize(description)) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        return weights;
+    }
+
+    private static void addDoc(TreeMap<String, Map<Integer, Float>> postings, Map<Integer, Set<String>> docs,
+                               Integer productId, Map<String, Float> weights) {
+        docs.put(productId, weights.keySet());
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(productId, entry.getValue());
+        }
+    }
+
+    private static void removeDoc(TreeMap<String, Map<Integer, Float>> postings, Map<Integer, Set<String>> docs,
+                                  Integer productId) {
+        Set<String> previous = docs.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            Map<Integer, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.umg.proyecto.search;
+
+import com.umg.proyecto.models.Suggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Autocompletado sobre nombres de productos, marcas y categorías.
+ * El trie se reemplaza completo (las consultas nunca ven uno a medio construir); las escrituras
+ * del catálogo solo lo marcan como desactualizado y una tarea programada lo reconstruye.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Letras indexadas por entrada; prefijos más largos se resuelven filtrando todas las entradas del último nodo
+    @Value("${catalog.suggest.max-depth:16}")
+    private int maxDepth;
+
+    // Sugerencias precalculadas por prefijo
+    @Value("${catalog.suggest.top-k:10}")
+    private int topK;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.empty();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return trie.lookup(prefix, Math.min(limit, topK));
+    }
+
+    // Llamado por los servicios del catálogo cuando cambia un nombre
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            dirty.set(true);  // Se reintenta en la siguiente ejecución programada
+            log.warn("No se pudo construir el índice de sugerencias: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.suggest.refresh-ms:30000}")
+    public void refreshIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            try {
+                rebuild();
+            } catch (DataAccessException e) {
+                dirty.set(true);
+                log.warn("No se pudo reconstruir el índice de sugerencias: {}", e.getMessage());
+            }
+        }
+    }
+
+    public void rebuild() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(maxDepth, topK);
+
+        // Productos: puntaje por unidades vendidas
+        String productSql = "SELECT p.ID, p.NAME, NVL(SUM(od.QTY), 0) AS SCORE FROM PRODUCT p " +
+                "LEFT JOIN ORDER_DETAIL od ON od.PRODUCT_ID = p.ID GROUP BY p.ID, p.NAME";
+        jdbcTemplate.query(productSql, rs -> {
+            builder.add(rs.getString("NAME"), "PRODUCT", rs.getInt("ID"), rs.getLong("SCORE"));
+        });
+
+        // Marcas y categorías: puntaje por cantidad de productos
+        String brandSql = "SELECT b.ID, b.NAME, COUNT(p.ID) AS SCORE FROM BRAND b " +
+                "LEFT JOIN PRODUCT p ON p.BRAND_ID = b.ID GROUP BY b.ID, b.NAME";
+        jdbcTemplate.query(brandSql, rs -> {
+            builder.add(rs.getString("NAME"), "BRAND", rs.getInt("ID"), rs.getLong("SCORE"));
+        });
+
+        String categorySql = "SELECT c.ID, c.NAME, COUNT(cp.PRODUCT_ID) AS SCORE FROM CATEGORY c " +
+                "LEFT JOIN CATEGORY_PRODUCT cp ON cp.CATEGORY_ID = c.ID GROUP BY c.ID, c.NAME";
+        jdbcTemplate.query(categorySql, rs -> {
+            builder.add(rs.getString("NAME"), "CATEGORY", rs.getInt("ID"), rs.getLong("SCORE"));
+        });
+
+        trie = builder.build();
+        log.info("Índice de sugerencias reconstruido");
+    }
+}
@@ -0,0 +1,217 @@
+package com.umg.proyecto.search;
+
+import com.umg.proyecto.models.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trie de prefijos inmutable para autocompletar.
+ * Cada nodo guarda ya calculadas sus k mejores sugerencias, así que una consulta solo recorre
+ * tantos nodos como letras tenga el prefijo y devuelve una vista del arreglo ya ordenado.
+ * Cada texto se indexa completo y desde el inicio de cada palabra ("tv samsung" también responde a "sam").
+ * Los nodos del nivel maxDepth guardan además todas sus entradas, para resolver prefijos más largos.
+ */
+public final class SuggestionTrie {
+
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    private final Node root;
+    private final int maxDepth;
+
+    private SuggestionTrie(Node root, int maxDepth) {
+        this.root = root;
+        this.maxDepth = maxDepth;
+    }
+
+    public static SuggestionTrie empty() {
+        return new SuggestionTrie(new Node(new char[0], new Node[0], NONE, null), 0);
+    }
+
+    public List<Suggestion> lookup(String prefix, int limit) {
+        String key = TextNormalizer.compact(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Node node = root;
+        int depth = Math.min(key.length(), maxDepth);
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        if (key.length() <= maxDepth || node.all == null) {
+            return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+        }
+
+        // Prefijos más largos que la profundidad indexada: se recorren todas las entradas del nodo
+        // (no solo su top-k, que puede no tener ninguna que siga coincidiendo)
+        List<Suggestion> result = new ArrayList<>();
+        for (Suggestion suggestion : node.all) {
+            String text = " " + TextNormalizer.compact(suggestion.getText());
+            if (text.contains(" " + key)) {
+                result.add(suggestion);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Node {
+        private final char[] keys;       // ordenadas, para búsqueda binaria
+        private final Node[] children;
+        private final Suggestion[] top;  // mejores sugerencias del subárbol, de mayor a menor puntaje
+        private final Suggestion[] all;  // solo en el nivel maxDepth: todas las entradas, en el mismo orden
+
+        private Node(char[] keys, Node[] children, Suggestion[] top, Suggestion[] all) {
+            this.keys = keys;
+            this.children = children;
+            this.top = top;
+            this.all = all;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    /**
+     * Construcción en dos fases: se insertan las entradas en nodos mutables manteniendo el top-k
+     * por nodo y al final se congela todo en arreglos compactos.
+     */
+    public static final class Builder {
+        private final int maxDepth;
+        private final int topK;
+        private final BuilderNode root = new BuilderNode();
+
+        public Builder(int maxDepth, int topK) {
+            this.maxDepth = maxDepth;
+            this.topK = topK;
+        }
+
+        public void add(String text, String type, Integer id, long score) {
+            String key = TextNormalizer.compact(text);
+            if (key.isEmpty()) {
+                return;
+            }
+            Scored entry = new Scored(new Suggestion(text, type, id), score, key.length());
+            int start = 0;
+            while (true) {
+                insert(key, start, entry);
+                int space = key.indexOf(' ', start);
+                if (space < 0) {
+                    break;
+                }
+                start = space + 1;
+            }
+        }
+
+        public SuggestionTrie build() {
+            return new SuggestionTrie(freeze(root), maxDepth);
+        }
+
+        private void insert(String key, int start, Scored entry) {
+            BuilderNode node = root;
+            int end = Math.min(key.length(), start + maxDepth);
+            for (int i = start; i < end; i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuilderNode());
+                node.offer(entry, topK);
+            }
+            if (end - start == maxDepth) {
+                node.keep(entry);
+            }
+        }
+
+        private static Node freeze(BuilderNode node) {
+            char[] keys = new char[node.children.size()];
+            Node[] children = new Node[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> child : node.children.entrySet()) {
+                keys[i] = child.getKey();
+                children[i] = freeze(child.getValue());
+                i++;
+            }
+
+            Suggestion[] top = new Suggestion[node.top.size()];
+            for (int j = 0; j < top.length; j++) {
+                top[j] = node.top.get(j).suggestion;
+            }
+            // En cadenas de un solo hijo el top suele ser idéntico: se comparte el arreglo
+            if (children.length == 1 && Arrays.equals(top, children[0].top)) {
+                top = children[0].top;
+            }
+            Suggestion[] all = null;
+            if (node.all != null) {
+                node.all.sort((a, b) -> a == b ? 0 : a.ranksBefore(b) ? -1 : b.ranksBefore(a) ? 1 : 0);
+                all = new Suggestion[node.all.size()];
+                for (int j = 0; j < all.length; j++) {
+                    all[j] = node.all.get(j).suggestion;
+                }
+            }
+            return new Node(keys, children, top.length == 0 ? NONE : top, all);
+        }
+    }
+
+    private static final class BuilderNode {
+        private final TreeMap<Character, BuilderNode> children = new TreeMap<>();
+        private final List<Scored> top = new ArrayList<>(2);
+        private List<Scored> all;  // solo en el nivel maxDepth
+
+        // Inserta la entrada si entra en el top-k (lista pequeña, ordenada por puntaje)
+        private void offer(Scored entry, int topK) {
+            for (Scored existing : top) {
+                if (existing == entry) {
+                    return;  // El mismo texto puede llegar por dos sufijos que comparten prefijo
+                }
+            }
+            int position = top.size();
+            while (position > 0 && entry.ranksBefore(top.get(position - 1))) {
+                position--;
+            }
+            if (position < topK) {
+                top.add(position, entry);
+                if (top.size() > topK) {
+                    top.remove(top.size() - 1);
+                }
+            }
+        }
+
+        private void keep(Scored entry) {
+            if (all == null) {
+                all = new ArrayList<>(2);
+            }
+            if (all.isEmpty() || all.get(all.size() - 1) != entry) {
+                all.add(entry);  // Dos palabras del mismo texto pueden llegar seguidas al mismo nodo
+            }
+        }
+    }
+
+    private static final class Scored {
+        private final Suggestion suggestion;
+        private final long score;
+        private final int length;
+
+        private Scored(Suggestion suggestion, long score, int length) {
+            this.suggestion = suggestion;
+            this.score = score;
+            this.length = length;
+        }
+
+        // Mayor puntaje primero; a igual puntaje, el texto más corto
+        private boolean ranksBefore(Scored other) {
+            if (score != other.score) {
+                return score > other.score;
+            }
+            return length < other.length;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.umg.proyecto.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para búsquedas: minúsculas, sin acentos (el catálogo está en español)
+ * y separado en palabras. "Cámara Fotográfica" y "camara fotografica" producen los mismos términos.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Palabras muy frecuentes que no aportan a la relevancia
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "su", "sus", "un", "una", "unos", "unas", "y");
+
+    private TextNormalizer() {
+    }
+
+    // Minúsculas y sin marcas diacríticas (á -> a, ñ -> n, ü -> u)
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Texto plegado con cualquier separador reducido a un solo espacio ("Smart-TV  55\"" -> "smart tv 55")
+    public static String compact(String text) {
+        return SEPARATORS.matcher(fold(text)).replaceAll(" ").trim();
+    }
+
+    // Términos indexables del texto, en orden de aparición y sin palabras vacías
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,5 +1,8 @@
 package com.umg.proyecto.services;
+import com.umg.proyecto.cache.CatalogCache;
 import com.umg.proyecto.models.Brand;
+import com.umg.proyecto.search.ProductSearchIndex;
+import com.umg.proyecto.search.SuggestionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -7,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 @Service
 public class BrandService {
@@ -14,6 +18,15 @@ public class BrandService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
     private final RowMapper<Brand> brandRowMapper = new RowMapper<Brand>() {
         @Override
         public Brand mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -25,28 +38,41 @@ public class BrandService {
     };
 
     public List<Brand> findAll() {
-        String sql = "SELECT * FROM BRAND";
-        return jdbcTemplate.query(sql, brandRowMapper);
+        return catalogCache.brandLists().get(CatalogCache.ALL, key -> {
+            String sql = "SELECT * FROM BRAND";
+            return Collections.unmodifiableList(jdbcTemplate.query(sql, brandRowMapper));
+        });
     }
 
     public Brand findById(Integer id) {
-        String sql = "SELECT * FROM BRAND WHERE ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, brandRowMapper);
+        return catalogCache.brands().get(id, key -> {
+            String sql = "SELECT * FROM BRAND WHERE ID = ?";
+            return jdbcTemplate.queryForObject(sql, new Object[]{key}, brandRowMapper);
+        });
     }
 
 
     public void save(Brand brand) {
         String sql = "INSERT INTO BRAND (ID, NAME) VALUES (BRAND_SEQ.NEXTVAL, ?)";
         jdbcTemplate.update(sql, brand.getName());
+        catalogCache.evictBrandLists();
+        AfterCommit.run(suggestionIndex::markDirty);
     }
 
     public void update(Brand brand) {
         String sql = "UPDATE BRAND SET NAME = ? WHERE ID = ?";
         jdbcTemplate.update(sql, brand.getName(), brand.getId());
+        catalogCache.evictBrand(brand.getId());
+        AfterCommit.run(() -> {
+            productSearchIndex.reindexBrand(brand.getId());
+            suggestionIndex.markDirty();
+        });
     }
 
     public void delete(Integer id) {
         String sql = "DELETE FROM BRAND WHERE ID = ?";
         jdbcTemplate.update(sql, id);
+        catalogCache.evictBrand(id);
+        AfterCommit.run(suggestionIndex::markDirty);
     }
 }
\ No newline at end of file
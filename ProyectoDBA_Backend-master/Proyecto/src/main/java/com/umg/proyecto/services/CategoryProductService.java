@@ -2,6 +2,7 @@ package com.umg.proyecto.services;
 
 import com.umg.proyecto.models.Category;
 import com.umg.proyecto.models.Product;
+import com.umg.proyecto.search.FacetIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -17,22 +18,28 @@ public class CategoryProductService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private FacetIndex facetIndex;
+
     // Método para agregar un producto a una categoría
     public void addProductToCategory(Integer productId, Integer categoryId) {
         String sql = "INSERT INTO CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID) VALUES (?, ?)";
         jdbcTemplate.update(sql, categoryId, productId);
+        AfterCommit.run(() -> facetIndex.reloadProduct(productId));
     }
 
     // Método para eliminar un producto de una categoría
     public void removeProductFromCategory(Integer productId, Integer categoryId) {
         String sql = "DELETE FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ? AND PRODUCT_ID = ?";
         jdbcTemplate.update(sql, categoryId, productId);
+        AfterCommit.run(() -> facetIndex.reloadProduct(productId));
     }
 
     // Método para eliminar todas las relaciones de un producto en CATEGORY_PRODUCT
     public void removeAllCategoriesFromProduct(Integer productId) {
         String sql = "DELETE FROM CATEGORY_PRODUCT WHERE PRODUCT_ID = ?";
         jdbcTemplate.update(sql, productId);
+        AfterCommit.run(() -> facetIndex.reloadProduct(productId));
     }
 
     // Método para obtener los objetos Product por categoría
@@ -1,16 +1,17 @@
 package com.umg.proyecto.services;
 
+import com.umg.proyecto.cache.CatalogVersions;
 import com.umg.proyecto.models.Category;
-import com.umg.proyecto.models.Product;
+import com.umg.proyecto.search.FacetIndex;
+import com.umg.proyecto.search.SuggestionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.dao.DataAccessException;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class CategoryService {
@@ -19,38 +20,57 @@ public class CategoryService {
     private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    private CategoryProductService categoryProductService;
-
-    private final RowMapper<Category> categoryRowMapper = new RowMapper<Category>() {
-        @Override
-        public Category mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Category category = new Category();
-            category.setId(rs.getInt("ID"));
-            category.setName(rs.getString("NAME"));
-            category.setParentCategoryId(rs.getObject("PARENT_CATEGORY_ID") != null ? rs.getInt("PARENT_CATEGORY_ID") : null);
-            return category;
-        }
-    };
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    private static final Projection<Category> CATEGORY = Projection.of((rs, rowNum) -> {
+        Category category = new Category();
+        category.setId(rs.getInt(1));
+        category.setName(rs.getString(2));
+        int parentId = rs.getInt(3);
+        category.setParentCategoryId(rs.wasNull() ? null : parentId);
+        return category;
+    }, "ID", "NAME", "PARENT_CATEGORY_ID");
+
+    // Categorías raíz: PARENT_CATEGORY_ID siempre es nulo, no se trae
+    private static final Projection<Category> ROOT_CATEGORY = Projection.of((rs, rowNum) -> {
+        Category category = new Category();
+        category.setId(rs.getInt(1));
+        category.setName(rs.getString(2));
+        return category;
+    }, "ID", "NAME");
 
     public List<Category> findAll() {
-        String sql = "SELECT * FROM CATEGORY";
-        return jdbcTemplate.query(sql, categoryRowMapper);
+        String sql = CATEGORY.select("CATEGORY");
+        return jdbcTemplate.query(sql, CATEGORY.getMapper());
     }
 
     public Category findById(Integer id) {
-        String sql = "SELECT * FROM CATEGORY WHERE ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, categoryRowMapper);
+        String sql = CATEGORY.select("CATEGORY WHERE ID = ?");
+        return jdbcTemplate.queryForObject(sql, new Object[]{id}, CATEGORY.getMapper());
     }
 
     public void save(Category category) {
         String sql = "INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) " +
                 "VALUES (CATEGORY_SEQ.NEXTVAL, ?, ?)";
         jdbcTemplate.update(sql, category.getName(), category.getParentCategoryId());
+        AfterCommit.run(this::onCategoriesChanged);
+        catalogVersions.bump(CatalogVersions.CATEGORIES);
     }
 
     public void update(Category category) {
         String sql = "UPDATE CATEGORY SET NAME = ?, PARENT_CATEGORY_ID = ? WHERE ID = ?";
         jdbcTemplate.update(sql, category.getName(), category.getParentCategoryId(), category.getId());
+        AfterCommit.run(this::onCategoriesChanged);
+        catalogVersions.bump(CatalogVersions.CATEGORIES);
     }
 
    // public void delete(Integer id) {
@@ -59,84 +79,104 @@ public class CategoryService {
     //}
 
     public List<Category> findSubcategories(Integer parentCategoryId) {
-        String sql = "SELECT * FROM CATEGORY WHERE PARENT_CATEGORY_ID = ?";
-        return jdbcTemplate.query(sql, new Object[]{parentCategoryId}, categoryRowMapper);
+        String sql = CATEGORY.select("CATEGORY WHERE PARENT_CATEGORY_ID = ?");
+        return jdbcTemplate.query(sql, new Object[]{parentCategoryId}, CATEGORY.getMapper());
     }
 
     // Método para obtener todas las categorías padre
     public List<Category> findParentCategories() {
-        String sql = "SELECT * FROM CATEGORY WHERE PARENT_CATEGORY_ID IS NULL";
-        return jdbcTemplate.query(sql, categoryRowMapper);
+        String sql = ROOT_CATEGORY.select("CATEGORY WHERE PARENT_CATEGORY_ID IS NULL");
+        return jdbcTemplate.query(sql, ROOT_CATEGORY.getMapper());
     }
 
 
     /**
      * Eliminar una categoría, garantizando la consistencia de datos.
+     * Cada relación se mueve con una sola sentencia, sin importar cuántos productos o subcategorías tenga.
      */
     @Transactional(rollbackFor = Exception.class)
     public void delete(Integer id) {
         Category categoryToDelete = findById(id);
-        List<Product> products = categoryProductService.getProductsByCategory(id);
-        List<Category> subcategories = findSubcategories(id);
         boolean isPrincipal = categoryToDelete.getParentCategoryId() == null;
 
         if (isPrincipal) {
-            handlePrincipalCategoryDeletion(products, subcategories);
+            handlePrincipalCategoryDeletion(id);
         } else {
-            handleSecondaryCategoryDeletion(categoryToDelete, products, subcategories);
+            handleSecondaryCategoryDeletion(categoryToDelete);
         }
 
         // Finalmente, intentamos eliminar la categoría.
         deleteCategoryById(id);
+        AfterCommit.run(this::onCategoriesChanged);
+        catalogVersions.bump(CatalogVersions.CATEGORIES);
+        // Los productos cambiaron de categoría con sentencias masivas: se reconstruyen las facetas
+        AfterCommit.run(facetIndex::rebuild);
     }
 
     /**
-     * Manejo de eliminación para categorías principales.
+     * Simulación de delete: cuántas filas se moverían, sin modificar nada.
      */
-    private void handlePrincipalCategoryDeletion(List<Product> products, List<Category> subcategories) {
-        if (!products.isEmpty()) {
-            throw new RuntimeException("No se puede eliminar una categoría principal con productos asociados.");
-        }
-
-        if (!subcategories.isEmpty()) {
-            subcategories.forEach(sub -> updateParentCategoryToNull(sub.getId()));
+    public Map<String, Object> previewDelete(Integer id) {
+        Category category = findById(id);
+        String sql = "SELECT " +
+                "(SELECT COUNT(*) FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ?) AS PRODUCT_LINKS, " +
+                "(SELECT COUNT(*) FROM CATEGORY_PRODUCT cp WHERE cp.CATEGORY_ID = ? AND EXISTS " +
+                "(SELECT 1 FROM CATEGORY_PRODUCT pp WHERE pp.CATEGORY_ID = ? AND pp.PRODUCT_ID = cp.PRODUCT_ID)) AS ALREADY_IN_PARENT, " +
+                "(SELECT COUNT(*) FROM CATEGORY WHERE PARENT_CATEGORY_ID = ?) AS SUBCATEGORIES " +
+                "FROM DUAL";
+        Integer parentId = category.getParentCategoryId();
+        Map<String, Object> counts = jdbcTemplate.queryForMap(sql, id, id, parentId, id);
+        int productLinks = ((Number) counts.get("PRODUCT_LINKS")).intValue();
+        int alreadyInParent = ((Number) counts.get("ALREADY_IN_PARENT")).intValue();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("categoryId", id);
+        report.put("parentCategoryId", parentId);
+        report.put("principal", parentId == null);
+        report.put("productLinksRemoved", productLinks);
+        report.put("productLinksMovedToParent", parentId == null ? 0 : productLinks - alreadyInParent);
+        report.put("subcategoriesReparented", ((Number) counts.get("SUBCATEGORIES")).intValue());
+        boolean blocked = parentId == null && productLinks > 0;
+        report.put("allowed", !blocked);
+        if (blocked) {
+            report.put("reason", "No se puede eliminar una categoría principal con productos asociados.");
         }
+        return report;
     }
 
     /**
-     * Manejo de eliminación para categorías secundarias.
+     * Manejo de eliminación para categorías principales: las subcategorías quedan como principales.
      */
-    private void handleSecondaryCategoryDeletion(Category category, List<Product> products, List<Category> subcategories) {
-        Integer parentCategoryId = category.getParentCategoryId();
-
-        if (!products.isEmpty()) {
-            // Reasignamos los productos a la categoría padre.
-            for (Product product : products) {
-                categoryProductService.addProductToCategory(product.getId(), parentCategoryId);
-                categoryProductService.removeProductFromCategory(product.getId(), category.getId());
-            }
-        }
-
-        if (!subcategories.isEmpty()) {
-            // Reasignamos las subcategorías a la categoría padre.
-            subcategories.forEach(sub -> updateParentCategory(sub.getId(), parentCategoryId));
+    private void handlePrincipalCategoryDeletion(Integer categoryId) {
+        String countSql = "SELECT COUNT(*) FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ? AND ROWNUM = 1";
+        if (jdbcTemplate.queryForObject(countSql, new Object[]{categoryId}, Integer.class) > 0) {
+            throw new RuntimeException("No se puede eliminar una categoría principal con productos asociados.");
         }
-    }
 
-    /**
-     * Actualiza la categoría padre de una subcategoría a null.
-     */
-    private void updateParentCategoryToNull(Integer categoryId) {
-        String sql = "UPDATE CATEGORY SET PARENT_CATEGORY_ID = NULL WHERE ID = ?";
+        String sql = "UPDATE CATEGORY SET PARENT_CATEGORY_ID = NULL WHERE PARENT_CATEGORY_ID = ?";
         jdbcTemplate.update(sql, categoryId);
     }
 
     /**
-     * Actualiza la categoría padre de una subcategoría.
+     * Manejo de eliminación para categorías secundarias: productos y subcategorías pasan a la categoría padre.
      */
-    private void updateParentCategory(Integer categoryId, Integer newParentCategoryId) {
-        String sql = "UPDATE CATEGORY SET PARENT_CATEGORY_ID = ? WHERE ID = ?";
-        jdbcTemplate.update(sql, newParentCategoryId, categoryId);
+    private void handleSecondaryCategoryDeletion(Category category) {
+        Integer categoryId = category.getId();
+        Integer parentCategoryId = category.getParentCategoryId();
+
+        // Reasignamos los productos a la categoría padre; los que ya estaban en ella no se duplican
+        String mergeSql = "MERGE INTO CATEGORY_PRODUCT t " +
+                "USING (SELECT DISTINCT PRODUCT_ID FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ?) s " +
+                "ON (t.CATEGORY_ID = ? AND t.PRODUCT_ID = s.PRODUCT_ID) " +
+                "WHEN NOT MATCHED THEN INSERT (CATEGORY_ID, PRODUCT_ID) VALUES (?, s.PRODUCT_ID)";
+        jdbcTemplate.update(mergeSql, categoryId, parentCategoryId, parentCategoryId);
+
+        String deleteLinksSql = "DELETE FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ?";
+        jdbcTemplate.update(deleteLinksSql, categoryId);
+
+        // Reasignamos las subcategorías a la categoría padre.
+        String reparentSql = "UPDATE CATEGORY SET PARENT_CATEGORY_ID = ? WHERE PARENT_CATEGORY_ID = ?";
+        jdbcTemplate.update(reparentSql, parentCategoryId, categoryId);
     }
 
     /**
@@ -146,4 +186,10 @@ public class CategoryService {
         String sql = "DELETE FROM CATEGORY WHERE ID = ?";
         jdbcTemplate.update(sql, id);
     }
+
+    // Tras confirmar una escritura: se publica un árbol nuevo y se marcan las sugerencias
+    private void onCategoriesChanged() {
+        categoryTreeService.rebuild();
+        suggestionIndex.markDirty();
+    }
 }
@@ -0,0 +1,166 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.Category;
+import com.umg.proyecto.models.CategoryNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Árbol de categorías en memoria, cargado de CATEGORY con una sola consulta.
+ * Cada escritura de CategoryService construye un árbol nuevo y lo publica de una vez (copia en escritura):
+ * los lectores siempre ven un árbol completo y consistente, sin bloqueos.
+ */
+@Service
+public class CategoryTreeService {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryTreeService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            // Se vuelve a intentar en la primera consulta
+            log.warn("No se pudo cargar el árbol de categorías: {}", e.getMessage());
+        }
+    }
+
+    // Llamado por CategoryService al confirmarse una escritura
+    public void rebuild() {
+        Map<Integer, Category> categories = new LinkedHashMap<>();
+        String sql = "SELECT ID, NAME, PARENT_CATEGORY_ID FROM CATEGORY ORDER BY NAME";
+        jdbcTemplate.query(sql, rs -> {
+            Integer parentId = rs.getObject("PARENT_CATEGORY_ID") != null ? rs.getInt("PARENT_CATEGORY_ID") : null;
+            categories.put(rs.getInt("ID"), new Category(rs.getInt("ID"), rs.getString("NAME"), parentId));
+        });
+        snapshot.set(new Snapshot(categories));
+    }
+
+    // Categorías raíz con todos sus descendientes anidados
+    public List<CategoryNode> getTree() {
+        return current().roots;
+    }
+
+    // Ruta desde la raíz hasta la categoría, incluida (para migas de pan)
+    public List<Category> getAncestors(Integer categoryId) {
+        Snapshot current = current();
+        List<Integer> path = current.require(categoryId).path;
+        List<Category> ancestors = new ArrayList<>(path.size());
+        for (Integer id : path) {
+            ancestors.add(current.categories.get(id));
+        }
+        return ancestors;
+    }
+
+    // IDs de la categoría y de todos sus descendientes
+    public List<Integer> getSubtreeIds(Integer categoryId) {
+        Snapshot current = current();
+        Entry entry = current.require(categoryId);
+        return current.preorder.subList(entry.start, entry.end);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            rebuild();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    // Posición de una categoría en el recorrido en preorden y su ruta desde la raíz
+    private static final class Entry {
+        private final int start;  // su subárbol ocupa preorder[start, end)
+        private final int end;
+        private final List<Integer> path;
+
+        private Entry(int start, int end, List<Integer> path) {
+            this.start = start;
+            this.end = end;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Árbol inmutable. En el recorrido en preorden todo subárbol es un tramo contiguo,
+     * así que los descendientes de una categoría se obtienen sin recorrer nada.
+     */
+    private static final class Snapshot {
+        private final Map<Integer, Category> categories;
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private final List<Integer> preorder;
+        private final List<CategoryNode> roots;
+
+        private Snapshot(Map<Integer, Category> categories) {
+            this.categories = categories;
+
+            Map<Integer, List<Category>> children = new HashMap<>();
+            List<Category> rootCategories = new ArrayList<>();
+            for (Category category : categories.values()) {
+                Integer parentId = category.getParentCategoryId();
+                if (parentId == null || !categories.containsKey(parentId)) {
+                    rootCategories.add(category);
+                } else {
+                    children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category);
+                }
+            }
+
+            List<Integer> order = new ArrayList<>(categories.size());
+            List<CategoryNode> rootNodes = new ArrayList<>(rootCategories.size());
+            for (Category root : rootCategories) {
+                rootNodes.add(visit(root, children, order, Collections.emptyList()));
+            }
+            if (order.size() < categories.size()) {
+                // Categorías en un ciclo de PARENT_CATEGORY_ID: no son alcanzables desde ninguna raíz
+                log.warn("{} categorías forman un ciclo y se omiten del árbol", categories.size() - order.size());
+            }
+            this.preorder = Collections.unmodifiableList(order);
+            this.roots = Collections.unmodifiableList(rootNodes);
+        }
+
+        private CategoryNode visit(Category category, Map<Integer, List<Category>> children,
+                                   List<Integer> order, List<Integer> parentPath) {
+            List<Integer> path = new ArrayList<>(parentPath.size() + 1);
+            path.addAll(parentPath);
+            path.add(category.getId());
+
+            int start = order.size();
+            order.add(category.getId());
+            List<CategoryNode> childNodes = new ArrayList<>();
+            for (Category child : children.getOrDefault(category.getId(), Collections.emptyList())) {
+                childNodes.add(visit(child, children, order, path));
+            }
+            entries.put(category.getId(), new Entry(start, order.size(), Collections.unmodifiableList(path)));
+            return new CategoryNode(category.getId(), category.getName(), category.getParentCategoryId(),
+                    Collections.unmodifiableList(childNodes));
+        }
+
+        private Entry require(Integer categoryId) {
+            Entry entry = entries.get(categoryId);
+            if (entry == null) {
+                throw new EmptyResultDataAccessException("Categoría no encontrada: " + categoryId, 1);
+            }
+            return entry;
+        }
+    }
+}
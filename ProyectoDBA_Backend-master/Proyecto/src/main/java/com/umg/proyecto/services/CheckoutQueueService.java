@@ -0,0 +1,254 @@
+package com.umg.proyecto.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.proyecto.metrics.CheckoutMetrics;
+import com.umg.proyecto.models.CheckoutClaim;
+import com.umg.proyecto.models.CheckoutStatus;
+import com.umg.proyecto.models.OrderDetail;
+import com.umg.proyecto.models.OrderRequest;
+import com.umg.proyecto.models.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cola de checkout asíncrono sobre la tabla CHECKOUT_OUTBOX.
+ * La solicitud se valida y se guarda en la misma base que las órdenes (sobrevive a un reinicio);
+ * CheckoutWorker la toma después y ejecuta OrderService.processOrder fuera del hilo de la petición.
+ */
+@Service
+public class CheckoutQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutQueueService.class);
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String REJECTED = "REJECTED";  // Error de negocio (sin stock, línea inválida): no se reintenta
+    public static final String FAILED = "FAILED";      // Se agotaron los reintentos
+
+    private static final int ERROR_MAX_BYTES = 400;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CheckoutMetrics checkoutMetrics;
+
+    @Value("${checkout.async.max-attempts:5}")
+    private int maxAttempts;
+
+    private final RowMapper<CheckoutStatus> statusRowMapper = new RowMapper<CheckoutStatus>() {
+        @Override
+        public CheckoutStatus mapRow(ResultSet rs, int rowNum) throws SQLException {
+            CheckoutStatus status = new CheckoutStatus();
+            status.setToken(rs.getString("TOKEN"));
+            status.setStatus(rs.getString("STATUS"));
+            status.setOrderId(rs.getObject("ORDER_ID", Integer.class));
+            status.setError(rs.getString("ERROR"));
+            status.setCreatedAt(rs.getTimestamp("CREATED_AT"));
+            status.setUpdatedAt(rs.getTimestamp("UPDATED_AT"));
+            return status;
+        }
+    };
+
+    // Valida la solicitud y la deja pendiente; devuelve el token con el que el cliente consulta el estado
+    public String enqueue(OrderRequest orderRequest) {
+        validate(orderRequest);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(orderRequest);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar la orden", e);
+        }
+
+        String token = UUID.randomUUID().toString();
+        String sql = "INSERT INTO CHECKOUT_OUTBOX (TOKEN, PAYLOAD, STATUS, ATTEMPTS, CREATED_AT, UPDATED_AT) " +
+                "VALUES (?, ?, ?, 0, SYSTIMESTAMP, SYSTIMESTAMP)";
+        jdbcTemplate.update(sql, token, payload, PENDING);
+        return token;
+    }
+
+    public CheckoutStatus findStatus(String token) {
+        String sql = "SELECT TOKEN, STATUS, ORDER_ID, ERROR, CREATED_AT, UPDATED_AT FROM CHECKOUT_OUTBOX WHERE TOKEN = ?";
+        return jdbcTemplate.queryForObject(sql, new Object[]{token}, statusRowMapper);
+    }
+
+    /**
+     * Toma hasta batchSize solicitudes pendientes y las marca en proceso.
+     * SKIP LOCKED deja que varios trabajadores (o instancias) reclamen lotes distintos sin esperarse.
+     */
+    public List<CheckoutClaim> claim(int batchSize) {
+        return transactionTemplate.execute(status -> {
+            String sql = "SELECT TOKEN, PAYLOAD, ATTEMPTS FROM CHECKOUT_OUTBOX WHERE STATUS = ? ORDER BY CREATED_AT FOR UPDATE SKIP LOCKED";
+            List<CheckoutClaim> claimed = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                ps.setString(1, PENDING);
+                ps.setMaxRows(batchSize);  // ROWNUM se evalúa antes de saltar las filas bloqueadas
+                return ps;
+            }, (rs, rowNum) -> new CheckoutClaim(rs.getString("TOKEN"), rs.getString("PAYLOAD"), rs.getInt("ATTEMPTS") + 1));
+
+            if (!claimed.isEmpty()) {
+                String updateSql = "UPDATE CHECKOUT_OUTBOX SET STATUS = ?, ATTEMPTS = ?, UPDATED_AT = SYSTIMESTAMP WHERE TOKEN = ?";
+                List<Object[]> args = new ArrayList<>(claimed.size());
+                for (CheckoutClaim claim : claimed) {
+                    args.add(new Object[]{PROCESSING, claim.getAttempt(), claim.getToken()});
+                }
+                jdbcTemplate.batchUpdate(updateSql, args);
+            }
+            return claimed;
+        });
+    }
+
+    /**
+     * Ejecuta una solicitud reclamada. La orden y el cambio a COMPLETED se confirman en la misma
+     * transacción, que empieza bloqueando la fila de la solicitud y comprobando que este reclamo sigue
+     * vigente y sin orden: un reclamo vencido (devuelto a la cola y tomado por otro trabajador) no crea
+     * una segunda orden ni pisa el estado que dejó el otro.
+     */
+    public void process(CheckoutClaim claim) {
+        long start = System.nanoTime();
+        try {
+            OrderRequest orderRequest = objectMapper.readValue(claim.getPayload(), OrderRequest.class);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!lockClaim(claim)) {
+                    log.warn("Checkout {}: el intento {} ya no es el vigente, se descarta", claim.getToken(), claim.getAttempt());
+                    return;
+                }
+                Integer orderId = orderService.processOrder(orderRequest);
+                finish(claim, COMPLETED, orderId, null);
+            });
+        } catch (InsufficientStockException | OrderLineException e) {
+            finish(claim, REJECTED, null, e.getMessage());
+        } catch (JsonProcessingException e) {
+            finish(claim, REJECTED, null, "Solicitud ilegible: " + e.getOriginalMessage());
+        } catch (RuntimeException e) {
+            retryOrFail(claim, e);
+        } finally {
+            checkoutMetrics.record(CheckoutMetrics.Stage.ASYNC, start);
+        }
+    }
+
+    // Devuelve a la cola las solicitudes de un trabajador que se cayó a mitad de proceso
+    public int requeueStale(long staleSeconds) {
+        String sql = "UPDATE CHECKOUT_OUTBOX SET STATUS = ?, UPDATED_AT = SYSTIMESTAMP " +
+                "WHERE STATUS = ? AND UPDATED_AT < SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND')";
+        return jdbcTemplate.update(sql, PENDING, PROCESSING, staleSeconds);
+    }
+
+    private void retryOrFail(CheckoutClaim claim, RuntimeException e) {
+        if (claim.getAttempt() >= maxAttempts) {
+            log.error("Checkout {} descartado tras {} intentos: {}", claim.getToken(), claim.getAttempt(), e.getMessage());
+            finish(claim, FAILED, null, e.getMessage());
+        } else {
+            log.warn("Checkout {} falló (intento {}), se reintentará: {}", claim.getToken(), claim.getAttempt(), e.getMessage());
+            String updateSql = "UPDATE CHECKOUT_OUTBOX SET STATUS = ?, ERROR = ?, UPDATED_AT = SYSTIMESTAMP " +
+                    "WHERE TOKEN = ? AND STATUS = ? AND ATTEMPTS = ?";
+            jdbcTemplate.update(updateSql, PENDING, truncate(e.getMessage()), claim.getToken(), PROCESSING, claim.getAttempt());
+        }
+    }
+
+    // Bloquea la solicitud; true si sigue en proceso con este intento y todavía no tiene orden
+    private boolean lockClaim(CheckoutClaim claim) {
+        String sql = "SELECT STATUS, ATTEMPTS, ORDER_ID FROM CHECKOUT_OUTBOX WHERE TOKEN = ? FOR UPDATE";
+        return jdbcTemplate.queryForObject(sql, new Object[]{claim.getToken()}, (rs, rowNum) ->
+                PROCESSING.equals(rs.getString("STATUS"))
+                        && rs.getInt("ATTEMPTS") == claim.getAttempt()
+                        && rs.getObject("ORDER_ID") == null);
+    }
+
+    /**
+     * Estado final: se borra el payload, que puede incluir datos del cliente. Solo aplica si el reclamo
+     * sigue vigente; si no, la solicitud ya la cerró (o la está procesando) otro trabajador.
+     */
+    private void finish(CheckoutClaim claim, String status, Integer orderId, String error) {
+        String sql = "UPDATE CHECKOUT_OUTBOX SET STATUS = ?, ORDER_ID = ?, ERROR = ?, PAYLOAD = NULL, " +
+                "UPDATED_AT = SYSTIMESTAMP WHERE TOKEN = ? AND STATUS = ? AND ATTEMPTS = ? AND ORDER_ID IS NULL";
+        if (jdbcTemplate.update(sql, status, orderId, truncate(error), claim.getToken(), PROCESSING, claim.getAttempt()) == 0) {
+            log.warn("Checkout {}: el intento {} ya no es el vigente, no se marca {}", claim.getToken(), claim.getAttempt(), status);
+        }
+    }
+
+    private void validate(OrderRequest orderRequest) {
+        if (orderRequest.getCustomerId() == null && orderRequest.getCustomer() == null) {
+            throw new IllegalArgumentException("La orden necesita customerId o los datos del cliente");
+        }
+        List<OrderDetail> details = orderRequest.getOrderDetails();
+        if (details == null || details.isEmpty()) {
+            throw new IllegalArgumentException("La orden no tiene detalles");
+        }
+        for (OrderDetail detail : details) {
+            if (detail.getProductId() == null || detail.getQty() == null || detail.getQty() <= 0) {
+                throw new IllegalArgumentException("Detalle de orden inválido: " + detail);
+            }
+        }
+
+        // Los productos deben existir; el stock se verifica al procesar
+        List<Integer> productIds = details.stream().map(OrderDetail::getProductId).distinct().collect(Collectors.toList());
+        Set<Integer> found = productService.findByIds(productIds).stream().map(Product::getId).collect(Collectors.toSet());
+        if (found.size() < productIds.size()) {
+            productIds.removeAll(found);
+            throw new IllegalArgumentException("Productos inexistentes: " + productIds);
+        }
+    }
+
+    /**
+     * Recorta el mensaje a los 400 bytes de CHECKOUT_OUTBOX.ERROR: la columna usa semántica de bytes
+     * y en UTF-8 una letra acentuada ocupa dos. Corta en un límite de carácter.
+     */
+    static String truncate(String message) {
+        if (message == null || message.getBytes(StandardCharsets.UTF_8).length <= ERROR_MAX_BYTES) {
+            return message;
+        }
+        int bytes = 0;
+        int end = 0;
+        while (end < message.length()) {
+            int codePoint = message.codePointAt(end);
+            bytes += utf8Length(codePoint);
+            if (bytes > ERROR_MAX_BYTES) {
+                break;
+            }
+            end += Character.charCount(codePoint);
+        }
+        return message.substring(0, end);
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
@@ -0,0 +1,116 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.CheckoutClaim;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trabajadores que vacían CHECKOUT_OUTBOX. Cada uno reclama un lote de solicitudes pendientes,
+ * las procesa una por una y, si la cola está vacía, espera un intervalo corto antes de volver a mirar.
+ */
+@Component
+public class CheckoutWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutWorker.class);
+
+    @Autowired
+    private CheckoutQueueService checkoutQueueService;
+
+    @Value("${checkout.async.workers:4}")
+    private int workers;
+
+    @Value("${checkout.async.batch-size:20}")
+    private int batchSize;
+
+    @Value("${checkout.async.poll-ms:200}")
+    private long pollMs;
+
+    // Tiempo tras el cual una solicitud en proceso se considera abandonada
+    @Value("${checkout.async.stale-seconds:300}")
+    private long staleSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+    private volatile boolean running = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Con 0 trabajadores la cola solo recibe solicitudes (otra instancia las procesa)
+        if (workers <= 0) {
+            log.info("Checkout asíncrono sin trabajadores en esta instancia");
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> virtualThreads
+                ? Thread.ofVirtual().name("checkout-worker-" + counter.incrementAndGet()).unstarted(runnable)
+                : Thread.ofPlatform().name("checkout-worker-" + counter.incrementAndGet()).daemon(true).unstarted(runnable));
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::drain);
+        }
+        log.info("Checkout asíncrono iniciado con {} trabajadores", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.async.requeue-ms:60000}", initialDelayString = "${checkout.async.requeue-ms:60000}")
+    public void requeueStale() {
+        int requeued = checkoutQueueService.requeueStale(staleSeconds);
+        if (requeued > 0) {
+            log.warn("{} solicitudes de checkout abandonadas volvieron a la cola", requeued);
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                List<CheckoutClaim> batch = checkoutQueueService.claim(batchSize);
+                for (CheckoutClaim claim : batch) {
+                    checkoutQueueService.process(claim);
+                }
+                if (batch.isEmpty()) {
+                    Thread.sleep(pollMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException e) {
+                // Base no disponible: se espera y se vuelve a intentar; lo reclamado vuelve con requeueStale
+                log.warn("Error leyendo la cola de checkout: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollMs * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -4,12 +4,9 @@ import com.umg.proyecto.models.CreditCard;
 import com.umg.proyecto.models.OrderDetail;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.List;
 
 @Service
@@ -28,35 +25,32 @@ public class CreditCardService {
     private ProductService productService;
 
     // Mapeador de filas para convertir las filas de la base de datos en objetos CreditCard
-    private final RowMapper<CreditCard> creditCardRowMapper = new RowMapper<CreditCard>() {
-        @Override
-        public CreditCard mapRow(ResultSet rs, int rowNum) throws SQLException {
-            CreditCard creditCard = new CreditCard();
-            creditCard.setId(rs.getInt("ID"));
-            creditCard.setType(rs.getString("TYPE"));
-            creditCard.setCcNumber(rs.getString("CC_NUMBER"));
-            creditCard.setCcDueDate(rs.getDate("CC_DUE_DATE"));
-            creditCard.setCcName(rs.getString("CC_NAME"));
-            creditCard.setStatus(rs.getString("STATUS").charAt(0));
-            creditCard.setCustomerId(rs.getInt("CUSTOMER_ID"));
-            return creditCard;
-        }
-    };
+    private static final Projection<CreditCard> CREDIT_CARD = Projection.of((rs, rowNum) -> {
+        CreditCard creditCard = new CreditCard();
+        creditCard.setId(rs.getInt(1));
+        creditCard.setType(rs.getString(2));
+        creditCard.setCcNumber(rs.getString(3));
+        creditCard.setCcDueDate(rs.getDate(4));
+        creditCard.setCcName(rs.getString(5));
+        creditCard.setStatus(rs.getString(6).charAt(0));
+        creditCard.setCustomerId(rs.getInt(7));
+        return creditCard;
+    }, "ID", "TYPE", "CC_NUMBER", "CC_DUE_DATE", "CC_NAME", "STATUS", "CUSTOMER_ID");
 
     // Método para obtener todas las tarjetas de crédito
     public List<CreditCard> findAll() {
-        String sql = "SELECT * FROM CREDIT_CARD";
-        return jdbcTemplate.query(sql, creditCardRowMapper);
+        String sql = CREDIT_CARD.select("CREDIT_CARD");
+        return jdbcTemplate.query(sql, CREDIT_CARD.getMapper());
     }
 
     public CreditCard findById(Integer id) {
-        String sql = "SELECT * FROM CREDIT_CARD WHERE ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, creditCardRowMapper);
+        String sql = CREDIT_CARD.select("CREDIT_CARD WHERE ID = ?");
+        return jdbcTemplate.queryForObject(sql, new Object[]{id}, CREDIT_CARD.getMapper());
     }
 
     public List<CreditCard> findByCustomerId(Integer customerId) {
-        String sql = "SELECT * FROM CREDIT_CARD WHERE CUSTOMER_ID = ?";
-        return jdbcTemplate.query(sql, new Object[]{customerId}, creditCardRowMapper);
+        String sql = CREDIT_CARD.select("CREDIT_CARD WHERE CUSTOMER_ID = ?");
+        return jdbcTemplate.query(sql, new Object[]{customerId}, CREDIT_CARD.getMapper());
     }
 
     public void save(CreditCard creditCard) {
@@ -91,9 +85,6 @@ public class CreditCardService {
 
     private void checkAndReduceInventory(Integer orderId) {
         List<OrderDetail> orderDetails = orderDetailService.findByOrderId(orderId);
-
-        for (OrderDetail detail : orderDetails) {
-            productService.checkAndReduceStock(detail.getProductId(), detail.getQty());
-        }
+        productService.reserveStock(orderDetails);
     }
 }
@@ -3,13 +3,10 @@ package com.umg.proyecto.services;
 import com.umg.proyecto.models.Customer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.List;
 
 @Service
@@ -19,32 +16,29 @@ public class CustomerService {
     private JdbcTemplate jdbcTemplate;
 
 
-    private final RowMapper<Customer> customerRowMapper = new RowMapper<Customer>() {
-        @Override
-        public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Customer customer = new Customer();
-            customer.setId(rs.getInt("ID"));
-            customer.setNames(rs.getString("NAMES"));
-            customer.setLastNames(rs.getString("LAST_NAMES"));
-            customer.setPhoneNumber(rs.getString("PHONE_NUMBER"));
-            customer.setAddress(rs.getString("ADDRESS"));
-            customer.setStatus(rs.getString("STATUS").charAt(0));
-            customer.setEmail(rs.getString("EMAIL"));
-            customer.setPassword(rs.getString("PASSWORD"));
-            return customer;
-        }
-    };
+    // Datos del cliente sin PASSWORD: la contraseña solo se compara en la base, nunca se devuelve
+    private static final Projection<Customer> CUSTOMER = Projection.of((rs, rowNum) -> {
+        Customer customer = new Customer();
+        customer.setId(rs.getInt(1));
+        customer.setNames(rs.getString(2));
+        customer.setLastNames(rs.getString(3));
+        customer.setPhoneNumber(rs.getString(4));
+        customer.setAddress(rs.getString(5));
+        customer.setStatus(rs.getString(6).charAt(0));
+        customer.setEmail(rs.getString(7));
+        return customer;
+    }, "ID", "NAMES", "LAST_NAMES", "PHONE_NUMBER", "ADDRESS", "STATUS", "EMAIL");
 
     // Método para obtener todos los clientes
     public List<Customer> findAll() {
-        String sql = "SELECT * FROM CUSTOMER";
-        return jdbcTemplate.query(sql, customerRowMapper);
+        String sql = CUSTOMER.select("CUSTOMER");
+        return jdbcTemplate.query(sql, CUSTOMER.getMapper());
     }
 
     // Método para obtener un cliente por ID
     public Customer findById(Integer id) {
-        String sql = "SELECT * FROM CUSTOMER WHERE ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, customerRowMapper);
+        String sql = CUSTOMER.select("CUSTOMER WHERE ID = ?");
+        return jdbcTemplate.queryForObject(sql, new Object[]{id}, CUSTOMER.getMapper());
     }
 
     // Método para registar un cliente por ID
@@ -80,7 +74,8 @@ public class CustomerService {
                 customer.getPassword(), customer.getId());
 
 */
-    String sql = "UPDATE CUSTOMER SET NAMES = ?, LAST_NAMES = ?, PHONE_NUMBER = ?, ADDRESS = ?, PASSWORD = ? WHERE ID = ?";
+    // Las lecturas ya no devuelven la contraseña: si no viene en la petición se conserva la actual
+    String sql = "UPDATE CUSTOMER SET NAMES = ?, LAST_NAMES = ?, PHONE_NUMBER = ?, ADDRESS = ?, PASSWORD = NVL(?, PASSWORD) WHERE ID = ?";
     jdbcTemplate.update(sql, customer.getNames(), customer.getLastNames(), customer.getPhoneNumber(),
             customer.getAddress(), customer.getPassword(), customer.getId());
 }
@@ -94,9 +89,9 @@ public class CustomerService {
 
     // Método para autenticar al cliente por email y password
     public Customer login(String email, String password) {
-        String sql = "SELECT * FROM CUSTOMER WHERE EMAIL = ? AND PASSWORD = ?";
+        String sql = CUSTOMER.select("CUSTOMER WHERE EMAIL = ? AND PASSWORD = ?");
         try {
-            return jdbcTemplate.queryForObject(sql, new Object[]{email, password}, customerRowMapper);
+            return jdbcTemplate.queryForObject(sql, new Object[]{email, password}, CUSTOMER.getMapper());
         } catch (Exception e) {
             return null; // Devuelve null si no se encuentra el cliente o hay un error
         }
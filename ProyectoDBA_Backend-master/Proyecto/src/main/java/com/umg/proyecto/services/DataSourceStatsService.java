@@ -0,0 +1,75 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado del pool de conexiones para /api/admin/datasource: configuración efectiva y uso en este momento.
+ * Las series históricas están en /actuator/prometheus (hikaricp.*).
+ */
+@Service
+public class DataSourceStatsService {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        HikariDataSource hikari = unwrapHikari();
+        if (hikari != null) {
+            stats.put("poolName", hikari.getPoolName());
+            stats.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            stats.put("minimumIdle", hikari.getMinimumIdle());
+            stats.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+            stats.put("validationTimeoutMs", hikari.getValidationTimeout());
+            stats.put("leakDetectionThresholdMs", hikari.getLeakDetectionThreshold());
+            stats.put("maxLifetimeMs", hikari.getMaxLifetime());
+            Map<String, Object> driverProperties = new LinkedHashMap<>();
+            hikari.getDataSourceProperties().forEach((key, value) -> {
+                if (!key.toString().toLowerCase().contains("password")) {
+                    driverProperties.put(key.toString(), value);
+                }
+            });
+            stats.put("driverProperties", driverProperties);
+
+            // El MXBean existe desde que el pool abrió su primera conexión
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                stats.put("activeConnections", pool.getActiveConnections());
+                stats.put("idleConnections", pool.getIdleConnections());
+                stats.put("totalConnections", pool.getTotalConnections());
+                stats.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+            }
+        }
+        stats.put("jdbcTemplateFetchSize", jdbcTemplate.getFetchSize());
+
+        if (dataSource instanceof ConcurrencyLimitedDataSource limited) {
+            Map<String, Object> concurrency = new LinkedHashMap<>();
+            concurrency.put("limit", limited.getLimit());
+            concurrency.put("availablePermits", limited.getAvailablePermits());
+            concurrency.put("waiting", limited.getQueueLength());
+            stats.put("concurrencyLimit", concurrency);
+        }
+        return stats;
+    }
+
+    private HikariDataSource unwrapHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
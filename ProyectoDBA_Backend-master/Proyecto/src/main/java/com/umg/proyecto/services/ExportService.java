@@ -0,0 +1,281 @@
+package com.umg.proyecto.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exportación masiva en NDJSON o CSV con memoria acotada: las filas se leen por bloques de export.chunk-rows
+ * con paginación por keyset y cada bloque se escribe a la respuesta después de devolver la conexión al pool.
+ * Una descarga lenta no retiene una conexión (ni dispara la detección de fugas de Hikari) durante minutos.
+ * Cada exportación va ordenada por ID y acepta afterId, así una descarga cortada se reanuda desde el último ID recibido.
+ */
+@Service
+public class ExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    // Filas entre cada flush: el cliente recibe datos de a poco (transferencia por bloques)
+    private static final int FLUSH_EVERY = 500;
+
+    // Columnas exportadas por entidad; la primera es la marca de agua para reanudar
+    private static final Map<String, String[]> COLUMNS = Map.of(
+            "products", new String[]{"ID", "NAME", "PRICE", "DESCRIPTION", "STOCK", "IMAGE", "BRAND_ID"},
+            "orders", new String[]{"ID", "PURCHASE_DATE", "CUSTOMER_ID", "STATUS", "TOTAL"},
+            "order-details", new String[]{"ORDER_ID", "PRODUCT_ID", "QTY"});
+
+    private static final Map<String, String> TABLES = Map.of(
+            "products", "PRODUCT",
+            "orders", "\"ORDER\"",
+            "order-details", "ORDER_DETAIL");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Filas por bloque: la memoria de una exportación queda acotada a un bloque
+    @Value("${export.chunk-rows:10000}")
+    private int chunkRows;
+
+    public boolean supports(String entity, String format) {
+        return COLUMNS.containsKey(entity) && (NDJSON.equals(format) || CSV.equals(format));
+    }
+
+    /**
+     * Escribe las filas con ID mayor a afterId (todas si es null), hasta limit filas si se indica.
+     * En order-details la marca de agua es ORDER_ID y una orden nunca se parte: con limit se completan las
+     * líneas de la última orden aunque se pase del límite. Si la descarga se corta a mitad de una orden,
+     * se reanuda con afterId = la última orden recibida completa y la orden incompleta llega de nuevo entera.
+     */
+    public void export(String entity, String format, Integer afterId, Integer limit, OutputStream out) throws IOException {
+        String[] columns = COLUMNS.get(entity);
+        boolean wholeOrders = "order-details".equals(entity);
+        int maxRows = limit != null && limit > 0 ? limit : 0;
+        String order = wholeOrders ? columns[0] + ", PRODUCT_ID" : columns[0];
+        String select = "SELECT " + String.join(", ", columns) + " FROM " + TABLES.get(entity);
+        String chunkSql = "SELECT * FROM (" + select + " WHERE " + columns[0] + " > ? ORDER BY " + order + ") WHERE ROWNUM <= ?";
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = NDJSON.equals(format) ? new NdjsonRowWriter(writer, columns) : new CsvRowWriter(writer, columns);
+        rowWriter.start();
+
+        int rows = 0;
+        int lastId = afterId == null ? Integer.MIN_VALUE : afterId;
+        while (true) {
+            // La conexión solo se usa mientras se lee el bloque; la escritura al cliente va sin conexión
+            List<Object[]> chunk = readChunk(chunkSql, columns.length, lastId);
+            boolean full = chunk.size() == chunkRows;
+            if (wholeOrders && full) {
+                chunk = completeOrders(chunk, select, columns.length);
+            }
+            for (Object[] row : chunk) {
+                int id = ((Number) row[0]).intValue();
+                // Alcanzado el límite, solo se siguen escribiendo las líneas de la misma orden
+                if (maxRows > 0 && rows >= maxRows && (!wholeOrders || id != lastId)) {
+                    rowWriter.finish();
+                    return;
+                }
+                rowWriter.write(row);
+                lastId = id;
+                if (++rows % FLUSH_EVERY == 0) {
+                    rowWriter.flush();
+                }
+            }
+            if (!full) {
+                break;
+            }
+        }
+        rowWriter.finish();
+    }
+
+    private List<Object[]> readChunk(String sql, int columnCount, int afterId) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(Math.min(fetchSize, chunkRows));
+            ps.setInt(1, afterId);
+            ps.setInt(2, chunkRows);
+            return ps;
+        }, (rs, rowNum) -> readRow(rs, columnCount));
+    }
+
+    /**
+     * Un bloque lleno de order-details puede terminar a mitad de una orden: se descartan esas líneas
+     * (el siguiente bloque empieza en esa orden) salvo que la orden ocupe todo el bloque, en cuyo caso
+     * se leen todas sus líneas aparte.
+     */
+    private List<Object[]> completeOrders(List<Object[]> chunk, String select, int columnCount) {
+        Object lastOrder = chunk.get(chunk.size() - 1)[0];
+        int end = chunk.size();
+        while (end > 0 && chunk.get(end - 1)[0].equals(lastOrder)) {
+            end--;
+        }
+        if (end > 0) {
+            return chunk.subList(0, end);
+        }
+        String sql = select + " WHERE ORDER_ID = ? ORDER BY PRODUCT_ID";
+        return jdbcTemplate.query(sql, new Object[]{lastOrder}, (rs, rowNum) -> readRow(rs, columnCount));
+    }
+
+    private static Object[] readRow(ResultSet rs, int columnCount) throws SQLException {
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(Object[] row) throws IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // Un objeto JSON por línea; los nombres de campo van en camelCase como en el resto de la API
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] columns;
+        private final String[] fields;
+        private JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer, String[] columns) {
+            this.writer = writer;
+            this.columns = columns;
+            this.fields = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                fields[i] = camelCase(columns[i]);
+            }
+        }
+
+        @Override
+        public void start() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = row[i];
+                generator.writeFieldName(fields[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    // CSV con encabezado; los valores con comas, comillas o saltos de línea van entre comillas
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] columns;
+
+        private CsvRowWriter(Writer writer, String[] columns) {
+            this.writer = writer;
+            this.columns = columns;
+        }
+
+        @Override
+        public void start() throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(camelCase(columns[i]));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = row[i];
+                if (value instanceof Timestamp timestamp) {
+                    writer.write(timestamp.toLocalDateTime().toString());
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    // BRAND_ID -> brandId
+    private static String camelCase(String column) {
+        StringBuilder result = new StringBuilder();
+        boolean upper = false;
+        for (char c : column.toLowerCase().toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                result.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return result.toString();
+    }
+}
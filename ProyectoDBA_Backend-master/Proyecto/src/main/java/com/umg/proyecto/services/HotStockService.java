@@ -0,0 +1,338 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.cache.CatalogCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inventario repartido para productos "calientes" (ventas relámpago).
+ * El stock de un producto promovido se divide en N filas de PRODUCT_STOCK_SLOT; cada reserva descuenta
+ * de una ranura elegida al azar, así las compras concurrentes no se bloquean todas en la misma fila de PRODUCT.
+ * PRODUCT.STOCK queda como reflejo que se concilia periódicamente con la suma de las ranuras.
+ * Un producto es caliente si tiene filas en PRODUCT_STOCK_SLOT: la base decide, de modo que todas las
+ * instancias ven lo mismo. Promover, degradar y descontar de PRODUCT bloquean antes la fila del producto.
+ */
+@Service
+public class HotStockService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    // La promoción automática corre fuera de un proxy transaccional
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.hot.default-slots:8}")
+    private int defaultSlots;
+
+    // Tope de ranuras por producto: cada una es una fila y una reserva puede recorrerlas todas
+    @Value("${inventory.hot.max-slots:64}")
+    private int maxSlots;
+
+    // Promoción automática según la contención observada en las reservas
+    @Value("${inventory.hot.auto-promote:false}")
+    private boolean autoPromote;
+
+    @Value("${inventory.hot.reservations-threshold:200}")
+    private long reservationsThreshold;
+
+    @Value("${inventory.hot.latency-threshold-ms:50}")
+    private long latencyThresholdMs;
+
+    /**
+     * Productos promovidos y su cantidad de ranuras, como pista para no consultar la base en cada reserva.
+     * Puede estar desactualizada (promociones en otra instancia); reconcile la refresca desde la base.
+     */
+    private final Map<Integer, Integer> slotsByProduct = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+
+    // Métricas de la ventana actual: reservas y tiempo acumulado por producto
+    private final Map<Integer, LongAdder> reservations = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> reservationNanos = new ConcurrentHashMap<>();
+
+    // Resultado de descontar de las ranuras
+    public enum Reservation {
+        RESERVED,
+        INSUFFICIENT,
+        NOT_HOT  // El producto ya no tiene ranuras: el llamador descuenta de PRODUCT
+    }
+
+    // Según la pista en memoria; la decisión final la toma reserve o hotIn consultando la base
+    public boolean isKnownHot(Integer productId) {
+        ensureLoaded();
+        return slotsByProduct.containsKey(productId);
+    }
+
+    // Cuáles de los productos tienen ranuras en la base; actualiza la pista
+    public Set<Integer> hotIn(Collection<Integer> productIds) {
+        ensureLoaded();
+        Set<Integer> hot = new HashSet<>();
+        if (productIds.isEmpty()) {
+            return hot;
+        }
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        String sql = "SELECT PRODUCT_ID, COUNT(*) AS SLOTS FROM PRODUCT_STOCK_SLOT " +
+                "WHERE PRODUCT_ID IN (" + placeholders + ") GROUP BY PRODUCT_ID";
+        jdbcTemplate.query(sql, rs -> {
+            hot.add(rs.getInt("PRODUCT_ID"));
+            slotsByProduct.put(rs.getInt("PRODUCT_ID"), rs.getInt("SLOTS"));
+        }, productIds.toArray());
+        for (Integer productId : productIds) {
+            if (!hot.contains(productId)) {
+                slotsByProduct.remove(productId);
+            }
+        }
+        return hot;
+    }
+
+    /**
+     * Descuenta qty de las ranuras del producto: empieza por una al azar y sigue con las demás.
+     * Si ninguna ranura alcanza por sí sola, consolida bloqueando todas.
+     */
+    public Reservation reserve(Integer productId, int qty) {
+        Integer slots = slotsByProduct.get(productId);
+        if (slots == null) {
+            return reserveAcrossSlots(productId, qty);
+        }
+
+        String sql = "UPDATE PRODUCT_STOCK_SLOT SET STOCK = STOCK - ? WHERE PRODUCT_ID = ? AND SLOT = ? AND STOCK >= ?";
+        int start = ThreadLocalRandom.current().nextInt(slots);
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            if (jdbcTemplate.update(sql, qty, productId, slot, qty) == 1) {
+                return Reservation.RESERVED;
+            }
+        }
+        return reserveAcrossSlots(productId, qty);
+    }
+
+    // Registra la duración de una reserva sobre PRODUCT para detectar filas con contención
+    public void recordReservation(Integer productId, long elapsedNanos) {
+        if (!autoPromote) {
+            return;
+        }
+        reservations.computeIfAbsent(productId, id -> new LongAdder()).increment();
+        reservationNanos.computeIfAbsent(productId, id -> new LongAdder()).add(elapsedNanos);
+    }
+
+    /**
+     * Reparte el stock actual del producto en ranuras. La fila de PRODUCT se bloquea primero: una reserva
+     * fría en curso termina antes (y su descuento ya está en el stock que se reparte), y las siguientes
+     * esperan y luego encuentran las ranuras. Devuelve false si el producto ya estaba promovido.
+     */
+    @Transactional
+    public boolean promote(Integer productId, Integer slots) {
+        if (slots != null && slots > maxSlots) {
+            throw new IllegalArgumentException("Máximo " + maxSlots + " ranuras por producto");
+        }
+        ensureLoaded();
+        int slotCount = slots == null || slots < 2 ? defaultSlots : slots;
+
+        Integer stock = lockProduct(productId);
+        // Consulta aparte, posterior al bloqueo: ve una promoción que otra transacción acaba de confirmar
+        if (countSlots(productId) > 0) {
+            return false;
+        }
+        insertSlots(productId, stock, slotCount);
+
+        AfterCommit.run(() -> slotsByProduct.put(productId, slotCount));
+        log.info("Producto {} promovido a inventario repartido en {} ranuras", productId, slotCount);
+        return true;
+    }
+
+    /**
+     * Devuelve a PRODUCT la suma de las ranuras y las elimina. Bloquea la fila del producto y sus ranuras,
+     * así ninguna reserva descuenta de una ranura ya sumada. Devuelve false si el producto no tenía ranuras.
+     */
+    @Transactional
+    public boolean demote(Integer productId) {
+        ensureLoaded();
+        lockProduct(productId);
+        String lockSlotsSql = "SELECT STOCK FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ? ORDER BY SLOT FOR UPDATE";
+        List<Integer> slotStock = jdbcTemplate.queryForList(lockSlotsSql, Integer.class, productId);
+        if (slotStock.isEmpty()) {
+            return false;
+        }
+        int stock = slotStock.stream().mapToInt(Integer::intValue).sum();
+        jdbcTemplate.update("UPDATE PRODUCT SET STOCK = ? WHERE ID = ?", stock, productId);
+        forget(productId);
+        catalogCache.evictProduct(productId);
+        return true;
+    }
+
+    // El stock del producto se sobrescribió (edición desde administración): si tenía ranuras, se vuelve a repartir
+    public void onStockOverwritten(Integer productId, Integer stock) {
+        // El UPDATE previo de PRODUCT ya tiene la fila bloqueada
+        int slots = jdbcTemplate.update("DELETE FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ?", productId);
+        if (slots > 0) {
+            insertSlots(productId, stock, slots);
+        }
+    }
+
+    // Elimina las ranuras de un producto (al degradarlo o antes de borrarlo)
+    public void forget(Integer productId) {
+        if (jdbcTemplate.update("DELETE FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ?", productId) > 0) {
+            AfterCommit.run(() -> slotsByProduct.remove(productId));
+        }
+    }
+
+    public List<Map<String, Object>> findHotProducts() {
+        String sql = "SELECT PRODUCT_ID, COUNT(*) AS SLOTS, SUM(STOCK) AS STOCK FROM PRODUCT_STOCK_SLOT " +
+                "GROUP BY PRODUCT_ID ORDER BY PRODUCT_ID";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("productId", rs.getInt("PRODUCT_ID"));
+            row.put("slots", rs.getInt("SLOTS"));
+            row.put("stock", rs.getInt("STOCK"));
+            return row;
+        });
+    }
+
+    /**
+     * Concilia PRODUCT.STOCK con la suma de las ranuras y refresca la pista en memoria.
+     * Solo se escriben (y se sacan de la caché) los productos cuyo reflejo quedó distinto de la suma.
+     * Es seguro porque ningún descuento toca PRODUCT.STOCK de un producto con ranuras (ver ProductService.reserveStock).
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot.reconcile-ms:5000}")
+    public void reconcile() {
+        Map<Integer, Integer> current = new HashMap<>();
+        List<Object[]> stale = new ArrayList<>();
+        String sql = "SELECT s.PRODUCT_ID, COUNT(*) AS SLOTS, SUM(s.STOCK) AS SLOT_STOCK, p.STOCK " +
+                "FROM PRODUCT_STOCK_SLOT s JOIN PRODUCT p ON p.ID = s.PRODUCT_ID GROUP BY s.PRODUCT_ID, p.STOCK";
+        jdbcTemplate.query(sql, rs -> {
+            current.put(rs.getInt("PRODUCT_ID"), rs.getInt("SLOTS"));
+            if (rs.getInt("SLOT_STOCK") != rs.getInt("STOCK")) {
+                stale.add(new Object[]{rs.getInt("PRODUCT_ID")});
+            }
+        });
+        slotsByProduct.keySet().retainAll(current.keySet());
+        slotsByProduct.putAll(current);
+        loaded = true;
+        if (stale.isEmpty()) {
+            return;
+        }
+        // La suma se vuelve a leer en el UPDATE: si cambió desde la consulta, se escribe la más reciente;
+        // EXISTS descarta un producto degradado entretanto (su STOCK ya quedó fijado por demote)
+        String updateSql = "UPDATE PRODUCT p SET STOCK = (SELECT SUM(s.STOCK) FROM PRODUCT_STOCK_SLOT s WHERE s.PRODUCT_ID = p.ID) " +
+                "WHERE p.ID = ? AND EXISTS (SELECT 1 FROM PRODUCT_STOCK_SLOT s WHERE s.PRODUCT_ID = p.ID)";
+        jdbcTemplate.batchUpdate(updateSql, stale);
+        stale.forEach(row -> catalogCache.evictProduct((Integer) row[0]));
+    }
+
+    // Revisa la ventana de métricas y promueve los productos con más contención
+    @Scheduled(fixedDelayString = "${inventory.hot.window-ms:10000}")
+    public void promoteContended() {
+        if (!autoPromote) {
+            return;
+        }
+        Map<Integer, LongAdder> counts = new HashMap<>(reservations);
+        Map<Integer, LongAdder> nanos = new HashMap<>(reservationNanos);
+        reservations.clear();
+        reservationNanos.clear();
+
+        for (Map.Entry<Integer, LongAdder> entry : counts.entrySet()) {
+            long count = entry.getValue().sum();
+            long avgMillis = nanos.get(entry.getKey()).sum() / Math.max(1, count) / 1_000_000L;
+            if (count >= reservationsThreshold && avgMillis >= latencyThresholdMs && !isKnownHot(entry.getKey())) {
+                log.info("Producto {} con contención ({} reservas, {} ms promedio)", entry.getKey(), count, avgMillis);
+                transactionTemplate.executeWithoutResult(status -> promote(entry.getKey(), defaultSlots));
+            }
+        }
+    }
+
+    private Reservation reserveAcrossSlots(Integer productId, int qty) {
+        String lockSql = "SELECT SLOT, STOCK FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ? ORDER BY SLOT FOR UPDATE";
+        List<int[]> slots = jdbcTemplate.query(lockSql, new Object[]{productId},
+                (rs, rowNum) -> new int[]{rs.getInt("SLOT"), rs.getInt("STOCK")});
+        if (slots.isEmpty()) {
+            // Degradado (quizá desde otra instancia) entre la pista y el descuento
+            slotsByProduct.remove(productId);
+            return Reservation.NOT_HOT;
+        }
+        slotsByProduct.put(productId, slots.size());
+        int available = slots.stream().mapToInt(slot -> slot[1]).sum();
+        if (available < qty) {
+            return Reservation.INSUFFICIENT;
+        }
+
+        String sql = "UPDATE PRODUCT_STOCK_SLOT SET STOCK = STOCK - ? WHERE PRODUCT_ID = ? AND SLOT = ?";
+        int remaining = qty;
+        for (int[] slot : slots) {
+            int take = Math.min(remaining, slot[1]);
+            if (take > 0) {
+                jdbcTemplate.update(sql, take, productId, slot[0]);
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return Reservation.RESERVED;
+    }
+
+    // Bloquea la fila del producto y devuelve su stock
+    private Integer lockProduct(Integer productId) {
+        String lockSql = "SELECT STOCK FROM PRODUCT WHERE ID = ? FOR UPDATE";
+        return jdbcTemplate.queryForObject(lockSql, new Object[]{productId}, Integer.class);
+    }
+
+    private int countSlots(Integer productId) {
+        String sql = "SELECT COUNT(*) FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ?";
+        return jdbcTemplate.queryForObject(sql, Integer.class, productId);
+    }
+
+    private Map<Integer, Integer> loadSlotCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        String sql = "SELECT PRODUCT_ID, COUNT(*) AS SLOTS FROM PRODUCT_STOCK_SLOT GROUP BY PRODUCT_ID";
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getInt("PRODUCT_ID"), rs.getInt("SLOTS"));
+        });
+        return counts;
+    }
+
+    private void insertSlots(Integer productId, int stock, int slotCount) {
+        List<Object[]> rows = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot++) {
+            // Reparto parejo; el residuo va a las primeras ranuras
+            int share = stock / slotCount + (slot < stock % slotCount ? 1 : 0);
+            rows.add(new Object[]{productId, slot, share});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO PRODUCT_STOCK_SLOT (PRODUCT_ID, SLOT, STOCK) VALUES (?, ?, ?)", rows);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    slotsByProduct.putAll(loadSlotCounts());
+                    loaded = true;
+                }
+            }
+        }
+    }
+}
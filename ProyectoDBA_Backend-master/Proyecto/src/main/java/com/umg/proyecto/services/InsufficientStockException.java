@@ -0,0 +1,21 @@
+package com.umg.proyecto.services;
+
+import java.util.List;
+
+/**
+ * Una o más líneas no se pudieron reservar: stock insuficiente o producto inexistente.
+ * Lleva los IDs de producto que fallaron para que el cliente pueda señalarlos.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<Integer> productIds;
+
+    public InsufficientStockException(List<Integer> productIds) {
+        super("Insufficient stock for product IDs: " + productIds);
+        this.productIds = List.copyOf(productIds);
+    }
+
+    public List<Integer> getProductIds() {
+        return productIds;
+    }
+}
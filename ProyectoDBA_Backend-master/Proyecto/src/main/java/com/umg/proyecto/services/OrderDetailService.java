@@ -1,6 +1,7 @@
 package com.umg.proyecto.services;
 
 import com.umg.proyecto.models.Brand;
+import com.umg.proyecto.models.ExpandedOrderDetail;
 import com.umg.proyecto.models.OrderDetail;
 import com.umg.proyecto.models.Product;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +50,32 @@ public class OrderDetailService {
         return jdbcTemplate.query(sql, new Object[]{orderId}, orderDetailRowMapper);
     }
 
+    // Detalles de la orden con el producto y su marca, en una sola consulta
+    public List<ExpandedOrderDetail> findExpandedByOrderId(Integer orderId) {
+        String sql = "SELECT od.ORDER_ID, od.PRODUCT_ID, od.QTY, p.NAME, p.PRICE, p.DESCRIPTION, p.STOCK, p.IMAGE, " +
+                "p.BRAND_ID, b.NAME AS BRAND_NAME " +
+                "FROM ORDER_DETAIL od " +
+                "JOIN PRODUCT p ON od.PRODUCT_ID = p.ID " +
+                "LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
+                "WHERE od.ORDER_ID = ? ORDER BY od.PRODUCT_ID";
+        return jdbcTemplate.query(sql, new Object[]{orderId}, (rs, rowNum) -> {
+            Product product = new Product();
+            product.setId(rs.getInt("PRODUCT_ID"));
+            product.setName(rs.getString("NAME"));
+            product.setPrice(rs.getFloat("PRICE"));
+            product.setDescription(rs.getString("DESCRIPTION"));
+            product.setStock(rs.getInt("STOCK"));
+            product.setImage(rs.getString("IMAGE"));
+
+            Brand brand = new Brand();
+            brand.setId(rs.getInt("BRAND_ID"));
+            brand.setName(rs.getString("BRAND_NAME"));
+            product.setBrand(brand);
+
+            return new ExpandedOrderDetail(rs.getInt("ORDER_ID"), rs.getInt("PRODUCT_ID"), rs.getInt("QTY"), product);
+        });
+    }
+
     // Método para actualizar un detalle de orden
     @Transactional
     public void update(OrderDetail orderDetail) {
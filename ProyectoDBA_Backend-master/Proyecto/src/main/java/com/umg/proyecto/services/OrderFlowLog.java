@@ -0,0 +1,91 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.OrderRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bitácora del flujo de checkout (logger "orderflow"), con campos clave=valor en lugar de objetos completos.
+ * Los eventos normales salen en DEBUG o, muestreados, en INFO; los errores en WARN con un límite por segundo.
+ * La escritura real la hace el appender asíncrono de logback-spring.xml, fuera del hilo del checkout.
+ */
+@Component
+public class OrderFlowLog {
+
+    private static final Logger log = LoggerFactory.getLogger("orderflow");
+
+    // Una de cada N órdenes completadas se registra en INFO (1 = todas)
+    @Value("${order-flow.log.sample-every:10}")
+    private long sampleEvery;
+
+    @Value("${order-flow.log.max-warn-per-second:20}")
+    private int maxWarnPerSecond;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong warnWindow = new AtomicLong();
+    private final AtomicLong warnsInWindow = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public void received(OrderRequest orderRequest) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        log.atDebug()
+                .addKeyValue("customerId", orderRequest.getCustomerId())
+                .addKeyValue("lines", orderRequest.getOrderDetails() == null ? 0 : orderRequest.getOrderDetails().size())
+                .addKeyValue("total", orderRequest.getTotal())
+                .log("orden recibida");
+    }
+
+    public void customerCreated(Integer customerId) {
+        log.atDebug().addKeyValue("customerId", customerId).log("cliente registrado en el checkout");
+    }
+
+    public void completed(Integer orderId, int lines, long startNanos) {
+        if (log.isDebugEnabled()) {
+            completedEvent(orderId, lines, startNanos, true);
+        } else if (log.isInfoEnabled() && completed.incrementAndGet() % Math.max(sampleEvery, 1) == 0) {
+            completedEvent(orderId, lines, startNanos, false);
+        }
+    }
+
+    // Errores de una etapa; si hay una ráfaga, se cuentan los omitidos y se informan en el siguiente permitido
+    public void failed(String stage, Exception e) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        if (!acquireWarn()) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        log.atWarn()
+                .addKeyValue("stage", stage)
+                .addKeyValue("error", e.getClass().getSimpleName())
+                .addKeyValue("suppressed", suppressed.getAndSet(0))
+                .log("falló el checkout: {}", e.getMessage());
+    }
+
+    private void completedEvent(Integer orderId, int lines, long startNanos, boolean debug) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        (debug ? log.atDebug() : log.atInfo())
+                .addKeyValue("orderId", orderId)
+                .addKeyValue("lines", lines)
+                .addKeyValue("elapsedMs", elapsedMs)
+                .log("orden completada");
+    }
+
+    // Ventana fija de un segundo
+    private boolean acquireWarn() {
+        long second = System.currentTimeMillis() / 1000;
+        long window = warnWindow.get();
+        if (window != second && warnWindow.compareAndSet(window, second)) {
+            warnsInWindow.set(0);
+        }
+        return warnsInWindow.incrementAndGet() <= maxWarnPerSecond;
+    }
+}
@@ -0,0 +1,25 @@
+package com.umg.proyecto.services;
+
+/**
+ * Falló una línea concreta del lote de detalles de una orden.
+ * Indica la posición de la línea en la solicitud y su producto.
+ */
+public class OrderLineException extends RuntimeException {
+
+    private final int line;
+    private final Integer productId;
+
+    public OrderLineException(int line, Integer productId, Throwable cause) {
+        super("Error al guardar la línea " + line + " (producto " + productId + "): " + cause.getMessage(), cause);
+        this.line = line;
+        this.productId = productId;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+}
@@ -1,20 +1,28 @@
 package com.umg.proyecto.services;
 
+import com.umg.proyecto.metrics.CheckoutMetrics;
 import com.umg.proyecto.models.Customer;
 import com.umg.proyecto.models.Order;
+import com.umg.proyecto.models.OrderCursor;
 import com.umg.proyecto.models.OrderDetail;
+import com.umg.proyecto.models.OrderQuery;
 import com.umg.proyecto.models.OrderRequest;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -27,36 +35,99 @@ public class OrderService {
     @Autowired
     private CustomerService customerService;
 
-    // Mapeador de filas para convertir las filas de la base de datos en objetos Order
-    private final RowMapper<Order> orderRowMapper = new RowMapper<Order>() {
-        @Override
-        public Order mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Order order = new Order();
-            order.setId(rs.getInt("ID"));
-            order.setPurchaseDate(rs.getDate("PURCHASE_DATE"));
-            order.setCustomerId(rs.getInt("CUSTOMER_ID"));
-            order.setStatus(rs.getString("STATUS"));
-            order.setTotal(rs.getFloat("TOTAL"));
-            return order;
-        }
-    };
+    @Autowired
+    private ProductService productService;
 
-    // Método para obtener todas las órdenes
-    public List<Order> findAll() {
-        String sql = "SELECT * FROM \"ORDER\"";
-        return jdbcTemplate.query(sql, orderRowMapper);
-    }
+    @Autowired
+    private CheckoutMetrics checkoutMetrics;
+
+    @Autowired
+    private OrderFlowLog orderFlowLog;
+
+    // Mapeador de filas para convertir las filas de la base de datos en objetos Order
+    private static final Projection<Order> ORDER = Projection.of((rs, rowNum) -> {
+        Order order = new Order();
+        order.setId(rs.getInt(1));
+        order.setPurchaseDate(rs.getDate(2));
+        order.setCustomerId(rs.getInt(3));
+        order.setStatus(rs.getString(4));
+        order.setTotal(rs.getFloat(5));
+        return order;
+    }, "ID", "PURCHASE_DATE", "CUSTOMER_ID", "STATUS", "TOTAL");
+
+    // Igual que ORDER pero con la hora de PURCHASE_DATE, necesaria para el cursor de paginación
+    private static final Projection<Order> ORDER_PAGE = Projection.of((rs, rowNum) -> {
+        Order order = new Order();
+        order.setId(rs.getInt(1));
+        order.setPurchaseDate(rs.getTimestamp(2));
+        order.setCustomerId(rs.getInt(3));
+        order.setStatus(rs.getString(4));
+        order.setTotal(rs.getFloat(5));
+        return order;
+    }, "ID", "PURCHASE_DATE", "CUSTOMER_ID", "STATUS", "TOTAL");
 
     // Método para obtener una orden por ID
     public Order findById(Integer id) {
-        String sql = "SELECT * FROM \"ORDER\" WHERE ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, orderRowMapper);
+        String sql = ORDER.select("\"ORDER\" WHERE ID = ?");
+        return jdbcTemplate.queryForObject(sql, new Object[]{id}, ORDER.getMapper());
     }
 
-    // Método para obtener todas las órdenes de un cliente
-    public List<Order> findByCustomerId(Integer customerId) {
-        String sql = "SELECT * FROM \"ORDER\" WHERE CUSTOMER_ID = ?";
-        return jdbcTemplate.query(sql, new Object[]{customerId}, orderRowMapper);
+    /**
+     * Una página del historial de órdenes por keyset sobre (PURCHASE_DATE, ID), con filtros opcionales.
+     * Con cliente recorre ORDER_CUSTOMER_DATE_IDX y sin él ORDER_DATE_IDX; se pide una fila de más
+     * para saber si hay otra página.
+     */
+    public List<Order> searchOrders(OrderQuery query) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (query.getCustomerId() != null) {
+            where.append(" AND CUSTOMER_ID = ?");
+            params.add(query.getCustomerId());
+        }
+        if (query.getStatus() != null) {
+            where.append(" AND STATUS = ?");
+            params.add(query.getStatus());
+        }
+        if (query.getFromDate() != null) {
+            where.append(" AND PURCHASE_DATE >= ?");
+            params.add(java.sql.Date.valueOf(query.getFromDate()));
+        }
+        if (query.getToDate() != null) {
+            // Hasta el final del día indicado
+            where.append(" AND PURCHASE_DATE < ?");
+            params.add(java.sql.Date.valueOf(query.getToDate().plusDays(1)));
+        }
+        if (query.getMinTotal() != null) {
+            where.append(" AND TOTAL >= ?");
+            params.add(query.getMinTotal());
+        }
+        if (query.getMaxTotal() != null) {
+            where.append(" AND TOTAL <= ?");
+            params.add(query.getMaxTotal());
+        }
+        String direction = query.isAscending() ? "ASC" : "DESC";
+        OrderCursor cursor = query.getCursor();
+        if (cursor != null) {
+            // CAST: comparar la columna DATE con un TIMESTAMP haría que Oracle convierta la columna y deje de usar el índice.
+            // El primer predicado es redundante con el OR, pero es el que Oracle puede usar como inicio del
+            // recorrido por rango del índice; sin él filtra desde el principio del historial en cada página
+            String seek = query.isAscending() ? ">" : "<";
+            where.append(" AND PURCHASE_DATE ").append(seek).append("= CAST(? AS DATE)")
+                    .append(" AND (PURCHASE_DATE ").append(seek).append(" CAST(? AS DATE)")
+                    .append(" OR (PURCHASE_DATE = CAST(? AS DATE) AND ID ").append(seek).append(" ?))");
+            Timestamp lastPurchase = new Timestamp(cursor.getLastPurchaseTime());
+            params.add(lastPurchase);
+            params.add(lastPurchase);
+            params.add(lastPurchase);
+            params.add(cursor.getLastId());
+        }
+        params.add(query.getLimit());
+
+        String sql = "SELECT * FROM ( " +
+                ORDER_PAGE.select("\"ORDER\" WHERE " + where) +
+                " ORDER BY PURCHASE_DATE " + direction + ", ID " + direction +
+                ") WHERE ROWNUM <= ?";
+        return jdbcTemplate.query(sql, params.toArray(), ORDER_PAGE.getMapper());
     }
 
     // Método para guardar una nueva orden
@@ -96,26 +167,41 @@ public class OrderService {
         jdbcTemplate.update(sql, purchaseStatus, orderId);
     }
     @Transactional
-    public void processOrder(OrderRequest orderRequest) {
-        System.out.println("Datos de la orden recibidos: " + orderRequest);
+    public Integer processOrder(OrderRequest orderRequest) {
+        long start = System.nanoTime();
+        orderFlowLog.received(orderRequest);
+        long stageStart = start;
 
         // Si el cliente no ha iniciado sesión, se registra un nuevo cliente
         if (orderRequest.getCustomerId() == null) {
             Customer newCustomer = customerService.save(orderRequest.getCustomer());
             orderRequest.setCustomerId(newCustomer.getId());
-            System.out.println("Nuevo cliente creado con ID: " + newCustomer.getId());
+            orderFlowLog.customerCreated(newCustomer.getId());
+            stageStart = checkoutMetrics.record(CheckoutMetrics.Stage.CUSTOMER, stageStart);
         }
 
         // Crear orden
         Integer orderId = createOrder(orderRequest);
-        System.out.println("Orden creada con ID: " + orderId);
-
-        // Crear detalles de orden y actualizar stock
-        for (OrderDetail detail : orderRequest.getOrderDetails()) {
-            System.out.println("Agregando detalle: " + detail);
-            detail.setOrderId(orderId);
-            saveOrderDetail(detail);
-            updateStock(detail.getProductId(), detail.getQty());
+        stageStart = checkoutMetrics.record(CheckoutMetrics.Stage.ORDER, stageStart);
+
+        // Los eventos siguientes llevan el ID de la orden (%X{orderId} en el patrón)
+        MDC.put("orderId", String.valueOf(orderId));
+        try {
+            // Crear detalles de orden en un solo lote
+            for (OrderDetail detail : orderRequest.getOrderDetails()) {
+                detail.setOrderId(orderId);
+            }
+            saveOrderDetails(orderRequest.getOrderDetails());
+            stageStart = checkoutMetrics.record(CheckoutMetrics.Stage.DETAILS, stageStart);
+
+            // Reservar el stock de todas las líneas con un solo lote de decrementos condicionales
+            productService.reserveStock(orderRequest.getOrderDetails());
+            checkoutMetrics.record(CheckoutMetrics.Stage.STOCK, stageStart);
+
+            orderFlowLog.completed(orderId, orderRequest.getOrderDetails().size(), start);
+            return orderId;
+        } finally {
+            MDC.remove("orderId");
         }
     }
 
@@ -137,40 +223,63 @@ public class OrderService {
             }, keyHolder);
 
             // Capturar el ID generado desde el KeyHolder
-            Integer orderId = keyHolder.getKey().intValue();
-            System.out.println("Orden creada con ID: " + orderId);
-            return orderId;
+            return keyHolder.getKey().intValue();
 
         } catch (Exception e) {
-            System.err.println("Error al crear la orden: " + e.getMessage());
+            orderFlowLog.failed("order", e);
             throw new RuntimeException("Error al crear la orden", e);
         }
     }
 
 
 
-    private void saveOrderDetail(OrderDetail detail) {
+    // Inserta todas las líneas de la orden en un solo lote JDBC
+    private void saveOrderDetails(List<OrderDetail> details) {
+        String sql = "INSERT INTO ORDER_DETAIL (ORDER_ID, PRODUCT_ID, QTY) VALUES (?, ?, ?)";
         try {
-            String sql = "INSERT INTO ORDER_DETAIL (ORDER_ID, PRODUCT_ID, QTY) VALUES (?, ?, ?)";
-            jdbcTemplate.update(sql, detail.getOrderId(), detail.getProductId(), detail.getQty());
-            System.out.println("Detalle guardado: " + detail);
-        } catch (Exception e) {
-            System.err.println("Error al guardar detalle: " + e.getMessage());
-            throw new RuntimeException("Error al guardar detalle", e);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    OrderDetail detail = details.get(i);
+                    ps.setInt(1, detail.getOrderId());
+                    ps.setInt(2, detail.getProductId());
+                    ps.setInt(3, detail.getQty());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return details.size();
+                }
+            });
+        } catch (DataAccessException e) {
+            int line = failedBatchLine(e, details.size());
+            orderFlowLog.failed("details", e);
+            throw new OrderLineException(line, line < details.size() ? details.get(line).getProductId() : null, e);
         }
     }
 
-
-    private void updateStock(Integer productId, Integer qty) {
-        String sqlCheck = "SELECT STOCK FROM PRODUCT WHERE ID = ?";
-        Integer currentStock = jdbcTemplate.queryForObject(sqlCheck, new Object[]{productId}, Integer.class);
-
-        if (currentStock < qty) {
-            throw new RuntimeException("Insufficient stock for product ID: " + productId);
+    /**
+     * Posición de la primera sentencia fallida del lote. El driver informa los conteos de las
+     * sentencias anteriores al error (o EXECUTE_FAILED en la que falló).
+     */
+    private int failedBatchLine(DataAccessException e, int batchSize) {
+        Throwable cause = e;
+        while (cause != null && !(cause instanceof BatchUpdateException)) {
+            cause = cause.getCause();
         }
-
-        String sqlUpdate = "UPDATE PRODUCT SET STOCK = STOCK - ? WHERE ID = ?";
-        jdbcTemplate.update(sqlUpdate, qty, productId);
+        if (cause == null) {
+            return 0;
+        }
+        int[] counts = ((BatchUpdateException) cause).getUpdateCounts();
+        if (counts == null) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return Math.min(counts.length, batchSize - 1);
     }
 
     @Transactional
@@ -0,0 +1,170 @@
+package com.umg.proyecto.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Conteo aproximado de productos para la paginación.
+ * Mantiene un histograma en memoria por cubetas de precio que se carga con un solo GROUP BY,
+ * se ajusta de forma incremental con las escrituras de ProductService y se resincroniza periódicamente.
+ * Las lecturas ven siempre un histograma completo: cubetas y total se publican juntos en una instantánea inmutable.
+ */
+@Service
+public class ProductCountService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Ancho de cada cubeta de precio (en la misma moneda que PRODUCT.PRICE)
+    @Value("${catalog.count.bucket-width:10}")
+    private int bucketWidth;
+
+    // null hasta la primera carga; se reemplaza completa en cada ajuste o recarga
+    private volatile Snapshot snapshot;
+
+    // Ajustes recibidos mientras corre una recarga, para aplicarlos sobre el histograma nuevo (guardado por this)
+    private List<long[]> pending;
+
+    // Una sola recarga a la vez
+    private final Object reloadLock = new Object();
+
+    // Total de productos del catálogo
+    public int countAll() {
+        return (int) ensureLoaded().total;
+    }
+
+    /**
+     * Total aproximado dentro de un rango de precios: suma las cubetas completas y prorratea las de los extremos.
+     * Un rango dentro de una sola cubeta (por ejemplo minPrice == maxPrice) no se puede prorratear; se cuenta
+     * exacto sobre PRODUCT_PRICE_ID_IDX, que a lo sumo recorre las filas de esa cubeta.
+     */
+    public int countByPriceRange(int minPrice, int maxPrice) {
+        Snapshot current = ensureLoaded();
+        if (maxPrice < minPrice) {
+            return 0;
+        }
+        if (bucketOf(minPrice) == bucketOf(maxPrice)) {
+            String sql = "SELECT COUNT(*) FROM PRODUCT WHERE PRICE BETWEEN ? AND ?";
+            return jdbcTemplate.queryForObject(sql, Integer.class, minPrice, maxPrice);
+        }
+        double count = 0;
+        // Solo las cubetas con productos: un rango enorme no recorre los IDs de cubeta vacíos
+        for (Map.Entry<Long, Long> entry : current.buckets.subMap(bucketOf(minPrice), true, bucketOf(maxPrice), true).entrySet()) {
+            long bucket = entry.getKey();
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            double lower = Math.max(minPrice, (double) bucket * bucketWidth);
+            double upper = Math.min(maxPrice, (double) (bucket + 1) * bucketWidth);
+            double fraction = Math.min(1.0, Math.max(0.0, (upper - lower) / bucketWidth));
+            count += entry.getValue() * fraction;
+        }
+        return (int) Math.round(count);
+    }
+
+    // Ajustes incrementales llamados desde ProductService; se aplican al confirmar la transacción
+    public void onProductAdded(Float price) {
+        AfterCommit.run(() -> adjust(price, 1));
+    }
+
+    public void onProductRemoved(Float price) {
+        AfterCommit.run(() -> adjust(price, -1));
+    }
+
+    public void onPriceChanged(Float oldPrice, Float newPrice) {
+        if (oldPrice == null || newPrice == null || bucketOf(oldPrice) == bucketOf(newPrice)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            adjust(oldPrice, -1);
+            adjust(newPrice, 1);
+        });
+    }
+
+    // Resincronización completa para corregir desvíos (cargas masivas, cambios directos en la base, rollbacks)
+    @Scheduled(fixedDelayString = "${catalog.count.resync-ms:600000}", initialDelayString = "${catalog.count.resync-ms:600000}")
+    public void reload() {
+        synchronized (reloadLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            NavigableMap<Long, Long> fresh = new TreeMap<>();
+            try {
+                String sql = "SELECT FLOOR(PRICE / ?) AS BUCKET, COUNT(*) AS TOTAL FROM PRODUCT GROUP BY FLOOR(PRICE / ?)";
+                jdbcTemplate.query(sql, new Object[]{bucketWidth, bucketWidth}, rs -> {
+                    fresh.put(rs.getLong("BUCKET"), rs.getLong("TOTAL"));
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                // Los ajustes que llegaron durante la consulta no se pierden al reemplazar el histograma
+                for (long[] adjustment : pending) {
+                    fresh.merge(adjustment[0], adjustment[1], Long::sum);
+                }
+                pending = null;
+                snapshot = new Snapshot(fresh);
+            }
+        }
+    }
+
+    private Snapshot ensureLoaded() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (reloadLock) {
+                if (snapshot == null) {
+                    reload();
+                }
+            }
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private synchronized void adjust(Float price, int delta) {
+        if (price == null) {
+            return;
+        }
+        if (pending != null) {
+            pending.add(new long[]{bucketOf(price), delta});
+        }
+        if (snapshot == null) {
+            return;  // Sin histograma cargado no hay nada que ajustar; la primera carga ya trae el valor real
+        }
+        NavigableMap<Long, Long> next = new TreeMap<>(snapshot.buckets);
+        next.merge(bucketOf(price), (long) delta, Long::sum);
+        snapshot = new Snapshot(next);
+    }
+
+    private long bucketOf(double price) {
+        return (long) Math.floor(price / bucketWidth);
+    }
+
+    // Cubetas ordenadas por ID (para subMap) y su total, siempre consistentes entre sí
+    private static final class Snapshot {
+        private final NavigableMap<Long, Long> buckets;
+        private final long total;
+
+        private Snapshot(NavigableMap<Long, Long> buckets) {
+            long sum = 0;
+            for (long count : buckets.values()) {
+                sum += count;
+            }
+            this.buckets = Collections.unmodifiableNavigableMap(buckets);
+            this.total = sum;
+        }
+    }
+}
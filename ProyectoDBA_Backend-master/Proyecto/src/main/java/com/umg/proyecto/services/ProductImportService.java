@@ -0,0 +1,367 @@
+package com.umg.proyecto.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.proyecto.cache.CatalogCache;
+import com.umg.proyecto.models.ImportReport;
+import com.umg.proyecto.models.ImportRow;
+import com.umg.proyecto.search.FacetIndex;
+import com.umg.proyecto.search.ProductSearchIndex;
+import com.umg.proyecto.search.SuggestionIndex;
+import com.umg.proyecto.search.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Importación masiva de productos desde CSV o NDJSON.
+ * La entrada se lee fila por fila; cada bloque de filas válidas se guarda con un MERGE por lotes
+ * (PRODUCT por nombre y CATEGORY_PRODUCT) y se confirma en su propia transacción,
+ * así la memoria no depende del tamaño del archivo y un error solo afecta a su bloque.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REJECTIONS_REPORTED = 1000;
+    private static final int MAX_JOBS_KEPT = 20;
+
+    // Los productos con stock repartido (HotStockService) conservan su stock; se ajusta desde administración.
+    // Los parámetros del USING llevan el tipo de su columna: sin CAST, H2 no puede deducirlo
+    private static final String MERGE_PRODUCT_SQL = "MERGE INTO PRODUCT t " +
+            "USING (SELECT CAST(? AS VARCHAR(50)) AS NAME, CAST(? AS FLOAT) AS PRICE, CAST(? AS VARCHAR(200)) AS DESCRIPTION, " +
+            "CAST(? AS INTEGER) AS STOCK, CAST(? AS VARCHAR(200)) AS IMAGE, CAST(? AS INTEGER) AS BRAND_ID FROM DUAL) s " +
+            "ON (t.NAME = s.NAME) " +
+            "WHEN MATCHED THEN UPDATE SET t.PRICE = s.PRICE, t.DESCRIPTION = s.DESCRIPTION, t.IMAGE = s.IMAGE, " +
+            "t.BRAND_ID = s.BRAND_ID, t.STOCK = CASE WHEN EXISTS " +
+            "(SELECT 1 FROM PRODUCT_STOCK_SLOT ss WHERE ss.PRODUCT_ID = t.ID) THEN t.STOCK ELSE s.STOCK END " +
+            "WHEN NOT MATCHED THEN INSERT (ID, NAME, PRICE, DESCRIPTION, STOCK, IMAGE, BRAND_ID) " +
+            "VALUES (PRODUCT_SEQ.NEXTVAL, s.NAME, s.PRICE, s.DESCRIPTION, s.STOCK, s.IMAGE, s.BRAND_ID)";
+
+    private static final String MERGE_CATEGORY_SQL = "MERGE INTO CATEGORY_PRODUCT t " +
+            "USING (SELECT p.ID AS PRODUCT_ID, CAST(? AS INTEGER) AS CATEGORY_ID FROM PRODUCT p WHERE p.NAME = ?) s " +
+            "ON (t.PRODUCT_ID = s.PRODUCT_ID AND t.CATEGORY_ID = s.CATEGORY_ID) " +
+            "WHEN NOT MATCHED THEN INSERT (CATEGORY_ID, PRODUCT_ID) VALUES (s.CATEGORY_ID, s.PRODUCT_ID)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    // Importaciones recientes, para consultar el progreso
+    private final Map<String, ImportReport> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportReport> eldest) {
+            return size() > MAX_JOBS_KEPT;
+        }
+    };
+
+    public ImportReport findJob(String jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    public ImportReport importProducts(InputStream input, String format, String jobId) {
+        ImportReport report = new ImportReport();
+        report.setJobId(jobId != null ? jobId : UUID.randomUUID().toString());
+        report.setStatus("RUNNING");
+        report.setStartedAt(new Date());
+        synchronized (jobs) {
+            jobs.put(report.getJobId(), report);
+        }
+
+        Map<String, Integer> brands = loadNames("SELECT ID, NAME FROM BRAND");
+        Set<Integer> brandIds = new HashSet<>(brands.values());
+        Map<String, Integer> categories = loadNames("SELECT ID, NAME FROM CATEGORY");
+        List<Object[]> chunk = new ArrayList<>(chunkSize);
+        try {
+            RowSource source = "csv".equals(format) ? new CsvRowSource(input) : new NdjsonRowSource(input);
+            ImportRow row;
+            long line = 0;
+            while ((row = source.next()) != null) {
+                line++;
+                report.setRowsRead(line);
+                String problem = validate(row, brands, brandIds, categories);
+                if (problem != null) {
+                    reject(report, line, problem);
+                    continue;
+                }
+                chunk.add(new Object[]{line, row});
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, report);
+            }
+            report.setStatus("COMPLETED");
+        } catch (IOException | RuntimeException e) {
+            report.setStatus("FAILED");
+            report.setError(e.getMessage());
+            log.error("Importación {} interrumpida en la fila {}: {}", report.getJobId(), report.getRowsRead(), e.getMessage());
+        } finally {
+            report.setFinishedAt(new Date());
+            refreshCatalog();
+        }
+        log.info("Importación {}: {} filas leídas, {} importadas, {} rechazadas",
+                report.getJobId(), report.getRowsRead(), report.getRowsImported(), report.getRowsRejected());
+        return report;
+    }
+
+    // Un bloque = un lote de MERGE por tabla y un commit; si el lote falla, se reintenta fila por fila
+    private void writeChunk(List<Object[]> chunk, ImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> merge(chunk));
+            report.setRowsImported(report.getRowsImported() + chunk.size());
+        } catch (DataAccessException e) {
+            for (Object[] entry : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> merge(Collections.singletonList(entry)));
+                    report.setRowsImported(report.getRowsImported() + 1);
+                } catch (DataAccessException rowError) {
+                    reject(report, (Long) entry[0], rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        report.setChunksCommitted(report.getChunksCommitted() + 1);
+    }
+
+    private void merge(List<Object[]> chunk) {
+        List<Object[]> productArgs = new ArrayList<>(chunk.size());
+        List<Object[]> categoryArgs = new ArrayList<>();
+        for (Object[] entry : chunk) {
+            ImportRow row = (ImportRow) entry[1];
+            productArgs.add(new Object[]{row.getName().trim(), row.getPrice(), row.getDescription(),
+                    row.getStock(), row.getImage(), row.getBrandId()});
+            if (row.getCategoryId() != null) {
+                categoryArgs.add(new Object[]{row.getCategoryId(), row.getName().trim()});
+            }
+        }
+        jdbcTemplate.batchUpdate(MERGE_PRODUCT_SQL, productArgs);
+        if (!categoryArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE_CATEGORY_SQL, categoryArgs);
+        }
+    }
+
+    // Devuelve el motivo de rechazo o null; resuelve marca y categoría por nombre
+    private String validate(ImportRow row, Map<String, Integer> brands, Set<Integer> brandIds, Map<String, Integer> categories) {
+        if (row.getName() == null || row.getName().isBlank() || row.getName().trim().length() > 50) {
+            return "nombre vacío o de más de 50 caracteres";
+        }
+        if (row.getPrice() == null || row.getPrice() < 0) {
+            return "precio inválido";
+        }
+        if (row.getStock() == null || row.getStock() < 0) {
+            return "stock inválido";
+        }
+        if (row.getImage() == null || row.getImage().isBlank() || row.getImage().length() > 200) {
+            return "imagen vacía o de más de 200 caracteres";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > 200) {
+            return "descripción de más de 200 caracteres";
+        }
+        if (row.getBrandId() == null) {
+            row.setBrandId(row.getBrand() == null ? null : brands.get(TextNormalizer.compact(row.getBrand())));
+            if (row.getBrandId() == null) {
+                return "marca desconocida: " + row.getBrand();
+            }
+        } else if (!brandIds.contains(row.getBrandId())) {
+            return "marca desconocida: " + row.getBrandId();
+        }
+        if (row.getCategoryId() == null && row.getCategory() != null && !row.getCategory().isBlank()) {
+            row.setCategoryId(categories.get(TextNormalizer.compact(row.getCategory())));
+            if (row.getCategoryId() == null) {
+                return "categoría desconocida: " + row.getCategory();
+            }
+        }
+        return null;
+    }
+
+    private void reject(ImportReport report, long line, String problem) {
+        report.setRowsRejected(report.getRowsRejected() + 1);
+        if (report.getRejections().size() < MAX_REJECTIONS_REPORTED) {
+            report.getRejections().add("fila " + line + ": " + problem);
+        }
+    }
+
+    // Nombre normalizado -> ID; marcas y categorías son pocas y caben en memoria
+    private Map<String, Integer> loadNames(String sql) {
+        Map<String, Integer> names = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            names.put(TextNormalizer.compact(rs.getString("NAME")), rs.getInt("ID"));
+        });
+        return names;
+    }
+
+    // Tras la carga se reconstruye todo lo derivado de PRODUCT de una sola vez, no por fila
+    private void refreshCatalog() {
+        try {
+            catalogCache.evictAllProducts();
+            productCountService.reload();
+            productSearchIndex.rebuild();
+            facetIndex.rebuild();
+            suggestionIndex.markDirty();
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron reconstruir los índices tras la importación: {}", e.getMessage());
+        }
+    }
+
+    private interface RowSource {
+        ImportRow next() throws IOException;
+    }
+
+    // Un objeto JSON por línea, leído de a uno con el parser incremental de Jackson
+    private final class NdjsonRowSource implements RowSource {
+        private final MappingIterator<ImportRow> iterator;
+
+        private NdjsonRowSource(InputStream input) throws IOException {
+            this.iterator = objectMapper.readerFor(ImportRow.class).readValues(input);
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            return iterator.hasNextValue() ? iterator.nextValue() : null;
+        }
+    }
+
+    /**
+     * CSV con encabezado (name, price, description, stock, image, brand o brandId, category o categoryId).
+     * Admite valores entre comillas con comas y comillas dobles escapadas, en una sola línea.
+     */
+    private static final class CsvRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final Map<String, Integer> header = new HashMap<>();
+
+        private CsvRowSource(InputStream input) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("El archivo CSV está vacío");
+            }
+            List<String> columns = split(headerLine.replace("\uFEFF", ""));
+            for (int i = 0; i < columns.size(); i++) {
+                header.put(columns.get(i).trim(), i);
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            List<String> values = split(line);
+            ImportRow row = new ImportRow();
+            row.setName(value(values, "name"));
+            row.setPrice(parse(value(values, "price"), Float::valueOf));
+            row.setDescription(value(values, "description"));
+            row.setStock(parse(value(values, "stock"), Integer::valueOf));
+            row.setImage(value(values, "image"));
+            row.setBrand(value(values, "brand"));
+            row.setBrandId(parse(value(values, "brandId"), Integer::valueOf));
+            row.setCategory(value(values, "category"));
+            row.setCategoryId(parse(value(values, "categoryId"), Integer::valueOf));
+            return row;
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = header.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        // Un número mal escrito queda en null y la validación rechaza la fila
+        private static <T> T parse(String value, Function<String, T> parser) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            values.add(current.toString());
+            return values;
+        }
+    }
+}
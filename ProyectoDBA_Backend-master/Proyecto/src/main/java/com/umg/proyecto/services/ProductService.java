@@ -1,17 +1,34 @@
 package com.umg.proyecto.services;
 
+import com.umg.proyecto.cache.CatalogCache;
 import com.umg.proyecto.models.Brand;
+import com.umg.proyecto.models.OrderDetail;
 import com.umg.proyecto.models.Product;
+import com.umg.proyecto.models.ProductCursor;
+import com.umg.proyecto.models.ProductPage;
+import com.umg.proyecto.search.FacetIndex;
+import com.umg.proyecto.search.ProductSearchIndex;
+import com.umg.proyecto.search.SuggestionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 @Service
 public class ProductService {
 
@@ -21,6 +38,30 @@ public class ProductService {
     @Autowired
     private CategoryProductService categoryProductService;
 
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    // Límite de elementos en una lista IN de Oracle
+    private static final int IN_CHUNK_SIZE = 1000;
+
     // Mapeador de filas para convertir las filas de la base de datos en objetos Product con Brand
     private final RowMapper<Product> productRowMapper = new RowMapper<Product>() {
         @Override
@@ -45,70 +86,276 @@ public class ProductService {
 
     // Método para obtener todos los productos
     public List<Product> findAll() {
-        String sql = "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID where rownum <=20";
-        return jdbcTemplate.query(sql, productRowMapper);
+        return catalogCache.productLists().get(CatalogCache.ALL, key -> {
+            String sql = "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID where rownum <=20";
+            return Collections.unmodifiableList(jdbcTemplate.query(sql, productRowMapper));
+        });
     }
 
-    // Método para obtener un producto por ID
+    // Método para obtener un producto por ID (pasa primero por la caché del catálogo)
     public Product findById(Integer id) {
-        String sql = "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID WHERE p.ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, productRowMapper);
+        return catalogCache.products().get(id, key -> {
+            String sql = "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID WHERE p.ID = ?";
+            return jdbcTemplate.queryForObject(sql, new Object[]{key}, productRowMapper);
+        });
     }
 
-    // **Nuevo método para buscar productos por palabra clave**
-    public List<Product> searchByKeyword(String keyword) {
+    // Búsqueda por palabra clave sobre el índice invertido, ordenada por relevancia
+    public List<Product> searchByKeyword(String keyword, int offset, int limit) {
+        if (productSearchIndex.isReady()) {
+            return findByIds(productSearchIndex.search(keyword, offset, limit));
+        }
+
+        // Mientras el índice se construye se mantiene la búsqueda en base de datos
         String sql = "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
                 "WHERE p.NAME LIKE ? OR p.DESCRIPTION LIKE ?";
         String likePattern = "%" + keyword + "%";
-        return jdbcTemplate.query(sql, new Object[]{likePattern, likePattern}, productRowMapper);
+        List<Product> products = jdbcTemplate.query(sql, new Object[]{likePattern, likePattern}, productRowMapper);
+        int from = Math.min(Math.max(0, offset), products.size());
+        return products.subList(from, Math.min(products.size(), from + Math.max(0, limit)));
+    }
+
+    // Obtiene varios productos por ID respetando el orden recibido; consulta primero la caché del catálogo
+    public List<Product> findByIds(List<Integer> ids) {
+        Map<Integer, Product> found = catalogCache.products().getAll(ids, this::loadByIds);
+
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    // Carga los productos que faltan en la caché con consultas IN por bloques
+    private Map<Integer, Product> loadByIds(List<Integer> ids) {
+        Map<Integer, Product> found = new HashMap<>();
+        for (int start = 0; start < ids.size(); start += IN_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + IN_CHUNK_SIZE));
+            String placeholders = chunk.stream().map(id -> "?").collect(Collectors.joining(", "));
+            String sql = "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
+                    "WHERE p.ID IN (" + placeholders + ")";
+            for (Product product : jdbcTemplate.query(sql, chunk.toArray(), productRowMapper)) {
+                found.put(product.getId(), product);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Una página de productos de un subárbol de categorías (la categoría y todas sus descendientes), por keyset
+     * sobre el ID igual que getProductsAfter. Con hasta 1000 categorías se usa una lista IN; con más, la jerarquía
+     * se resuelve en Oracle con CONNECT BY.
+     */
+    public ProductPage findByCategorySubtreeAfter(Integer categoryId, List<Integer> subtreeIds, ProductCursor cursor, int size) {
+        String select = "SELECT * FROM ( " +
+                "SELECT p.*, b.NAME AS BRAND_NAME FROM PRODUCT p LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
+                "WHERE p.ID > ? AND p.ID IN (SELECT cp.PRODUCT_ID FROM CATEGORY_PRODUCT cp WHERE cp.CATEGORY_ID IN (";
+        String page = ")) ORDER BY p.ID ) WHERE ROWNUM <= ?";
+        int afterId = cursor == null ? 0 : cursor.getLastId();
+
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        String sql;
+        if (subtreeIds.size() <= IN_CHUNK_SIZE) {
+            sql = select + subtreeIds.stream().map(id -> "?").collect(Collectors.joining(", ")) + page;
+            args.addAll(subtreeIds);
+        } else {
+            sql = select + "SELECT c.ID FROM CATEGORY c START WITH c.ID = ? " +
+                    "CONNECT BY NOCYCLE PRIOR c.ID = c.PARENT_CATEGORY_ID" + page;
+            args.add(categoryId);
+        }
+        args.add(size + 1);
+        return toPage(sql, args.toArray(), size, false);
     }
 
     // Método para guardar un nuevo producto
     public void save(Product product) {
         String sql = "INSERT INTO PRODUCT (ID, NAME, PRICE, DESCRIPTION, STOCK, IMAGE, BRAND_ID) " +
                 "VALUES (PRODUCT_SEQ.NEXTVAL, ?, ?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql, product.getName(), product.getPrice(), product.getDescription(),
-                product.getStock(), product.getImage(), product.getBrand().getId());
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] {"ID"});
+            ps.setString(1, product.getName());
+            ps.setObject(2, product.getPrice());
+            ps.setString(3, product.getDescription());
+            ps.setObject(4, product.getStock());
+            ps.setString(5, product.getImage());
+            ps.setInt(6, product.getBrand().getId());
+            return ps;
+        }, keyHolder);
+
+        // Obtén el ID generado y asígnalo al producto
+        product.setId(keyHolder.getKey().intValue());
+
+        productCountService.onProductAdded(product.getPrice());
+        indexProduct(product);
+        catalogCache.evictProductLists();
     }
 
     // Método para actualizar un producto existente
     public void update(Product product) {
+        Float oldPrice = findPrice(product.getId());
         String sql = "UPDATE PRODUCT SET NAME = ?, PRICE = ?, DESCRIPTION = ?, STOCK = ?, IMAGE = ?, BRAND_ID = ? WHERE ID = ?";
         jdbcTemplate.update(sql, product.getName(), product.getPrice(), product.getDescription(),
                 product.getStock(), product.getImage(), product.getBrand().getId(), product.getId());
+        hotStockService.onStockOverwritten(product.getId(), product.getStock());
+        productCountService.onPriceChanged(oldPrice, product.getPrice());
+        catalogCache.evictProduct(product.getId());
+        indexProduct(product);
     }
 
     // Método para eliminar un producto por ID
     public void delete(Integer id) {
+        Float oldPrice = findPrice(id);
+        hotStockService.forget(id);
         String sql = "DELETE FROM PRODUCT WHERE ID = ?";
-        jdbcTemplate.update(sql, id);
+        if (jdbcTemplate.update(sql, id) > 0) {
+            productCountService.onProductRemoved(oldPrice);
+        }
+        catalogCache.evictProduct(id);
+        AfterCommit.run(() -> {
+            productSearchIndex.remove(id);
+            facetIndex.removeProduct(id);
+            suggestionIndex.markDirty();
+        });
+    }
+
+    // Precio actual de un producto (null si no existe), usado para ajustar el conteo por cubetas
+    private Float findPrice(Integer id) {
+        String sql = "SELECT PRICE FROM PRODUCT WHERE ID = ?";
+        List<Float> prices = jdbcTemplate.queryForList(sql, new Object[]{id}, Float.class);
+        return prices.isEmpty() ? null : prices.get(0);
+    }
+
+    // Refleja el producto en los índices de búsqueda y sugerencias cuando la transacción se confirma
+    private void indexProduct(Product product) {
+        String brandName = brandService.findById(product.getBrand().getId()).getName();
+        AfterCommit.run(() -> {
+            productSearchIndex.index(product.getId(), product.getName(), product.getDescription(), brandName);
+            facetIndex.reloadProduct(product.getId());
+            suggestionIndex.markDirty();
+        });
     }
 
+    // Decremento condicional de un solo producto; sigue las mismas reglas que reserveStock
+    @Transactional
     public void checkAndReduceStock(Integer productId, Integer qty) {
-        String sqlCheck = "SELECT STOCK FROM PRODUCT WHERE ID = ?";
-        Integer currentStock = jdbcTemplate.queryForObject(sqlCheck, new Object[]{productId}, Integer.class);
+        reserveStock(Collections.singletonList(new OrderDetail(null, productId, qty)));
+    }
+
+    /**
+     * Reserva el stock de todas las líneas de una orden en un solo lote de decrementos condicionales.
+     * Los productos calientes descuentan de sus ranuras (HotStockService) en lugar de la fila de PRODUCT.
+     * Antes de descontar de PRODUCT se bloquean las filas y se vuelve a consultar si tienen ranuras: una
+     * promoción confirmada entretanto se detecta aquí y su stock no se descuenta dos veces.
+     * Si alguna línea no alcanza, se revierte todo y se informan los productos que fallaron.
+     */
+    @Transactional
+    public void reserveStock(List<OrderDetail> details) {
+        // Se agrupan las cantidades por producto para no descontar dos veces la misma fila en el lote
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (OrderDetail detail : details) {
+            quantities.merge(detail.getProductId(), detail.getQty(), Integer::sum);
+        }
 
-        if (currentStock < qty) {
-            throw new RuntimeException("Insufficient stock for product ID: " + productId);
+        List<Integer> failed = new ArrayList<>();
+        List<Integer> productIds = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            if (!hotStockService.isKnownHot(entry.getKey())) {
+                productIds.add(entry.getKey());
+                continue;
+            }
+            HotStockService.Reservation reservation = hotStockService.reserve(entry.getKey(), entry.getValue());
+            if (reservation == HotStockService.Reservation.NOT_HOT) {
+                productIds.add(entry.getKey());
+            } else if (reservation == HotStockService.Reservation.INSUFFICIENT) {
+                failed.add(entry.getKey());
+            }
         }
+        if (productIds.isEmpty()) {
+            if (!failed.isEmpty()) {
+                throw new InsufficientStockException(failed);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        // Con las filas bloqueadas ninguna promoción puede repartir su stock hasta que esta transacción termine
+        productIds.sort(null);
+        String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+        jdbcTemplate.queryForList("SELECT ID FROM PRODUCT WHERE ID IN (" + placeholders + ") ORDER BY ID FOR UPDATE",
+                Integer.class, productIds.toArray());
+        for (Integer productId : hotStockService.hotIn(productIds)) {
+            productIds.remove(productId);
+            if (hotStockService.reserve(productId, quantities.get(productId)) != HotStockService.Reservation.RESERVED) {
+                failed.add(productId);
+            }
+        }
+        if (productIds.isEmpty()) {
+            if (!failed.isEmpty()) {
+                throw new InsufficientStockException(failed);
+            }
+            return;
+        }
+
+        String sql = "UPDATE PRODUCT SET STOCK = STOCK - ? WHERE ID = ? AND STOCK >= ?";
+        int[] counts = jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Integer productId = productIds.get(i);
+                Integer qty = quantities.get(productId);
+                ps.setInt(1, qty);
+                ps.setInt(2, productId);
+                ps.setInt(3, qty);
+            }
 
-        String sqlUpdate = "UPDATE PRODUCT SET STOCK = STOCK - ? WHERE ID = ?";
-        jdbcTemplate.update(sqlUpdate, qty, productId);
+            @Override
+            public int getBatchSize() {
+                return productIds.size();
+            }
+        });
+
+        // La espera por bloqueos de fila se refleja en la duración del lote
+        long elapsed = System.nanoTime() - start;
+        productIds.forEach(productId -> hotStockService.recordReservation(productId, elapsed));
+
+        // ojdbc devuelve el número real de filas por sentencia del lote; 0 significa que no alcanzó
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                failed.add(productIds.get(i));
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new InsufficientStockException(failed);
+        }
+
+        productIds.forEach(catalogCache::evictProduct);
     }
 
+    // Productos del rango de precios ordenados por (PRICE, ID), el mismo orden que la paginación por cursor
     public List<Product> getProductsByPriceRange(int minPrice, int maxPrice, int page, int size) {
+        return getProductsByPriceRangePage(minPrice, maxPrice, page, size).getProducts();
+    }
+
+    // Página por número dentro del rango de precios; devuelve el cursor para seguir en modo keyset
+    public ProductPage getProductsByPriceRangePage(int minPrice, int maxPrice, int page, int size) {
         String sql = "SELECT * FROM ( " +
                 "SELECT p.*, b.NAME AS BRAND_NAME, " +
-                "ROW_NUMBER() OVER (ORDER BY p.ID) AS row_num " +
+                "ROW_NUMBER() OVER (ORDER BY p.PRICE, p.ID) AS row_num " +
                 "FROM PRODUCT p " +
                 "LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
                 "WHERE p.PRICE BETWEEN ? AND ? " +
-                ") WHERE row_num BETWEEN ? AND ?";
+                ") WHERE row_num BETWEEN ? AND ? ORDER BY row_num";
 
         int startRow = (page - 1) * size + 1;
-        int endRow = page * size;
+        int endRow = page * size + 1;  // Una fila extra para saber si hay más páginas sin contar
 
-        return jdbcTemplate.query(sql, new Object[]{minPrice, maxPrice, startRow, endRow}, productRowMapper);
+        return toPage(sql, new Object[]{minPrice, maxPrice, startRow, endRow}, size, true);
     }
 
     public int countProductsByPriceRange(int minPrice, int maxPrice) {
@@ -117,18 +364,86 @@ public class ProductService {
     }
 
 
+    // Página por número ordenada por ID
     public List<Product> getPaginatedProducts(int page, int size) {
+        return getProductsPage(page, size).getProducts();
+    }
+
+    // Página por número con su cursor para seguir en modo keyset (mismo orden por ID)
+    public ProductPage getProductsPage(int page, int size) {
         String sql = "SELECT * FROM ( " +
                 "SELECT p.*, b.NAME AS BRAND_NAME, " +
                 "ROW_NUMBER() OVER (ORDER BY p.ID) AS row_num " +
                 "FROM PRODUCT p " +
                 "LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
-                ") WHERE row_num BETWEEN ? AND ?";
+                ") WHERE row_num BETWEEN ? AND ? ORDER BY row_num";
 
         int startRow = (page - 1) * size + 1;  // Primer producto de la página
-        int endRow = page * size;              // Último producto de la página
+        int endRow = page * size + 1;          // Último producto de la página más una fila extra para calcular hasMore
+
+        return toPage(sql, new Object[]{startRow, endRow}, size, false);
+    }
+
+    // Paginación por keyset: continúa después del último ID entregado, sin numerar las filas anteriores
+    public ProductPage getProductsAfter(ProductCursor cursor, int size) {
+        String sql = "SELECT * FROM ( " +
+                "SELECT p.*, b.NAME AS BRAND_NAME " +
+                "FROM PRODUCT p " +
+                "LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
+                "WHERE p.ID > ? " +
+                "ORDER BY p.ID " +
+                ") WHERE ROWNUM <= ?";
 
-        return jdbcTemplate.query(sql, new Object[]{startRow, endRow}, productRowMapper);
+        int afterId = cursor == null ? 0 : cursor.getLastId();
+        return toPage(sql, new Object[]{afterId, size + 1}, size, false);
+    }
+
+    // Paginación por keyset dentro de un rango de precios, ordenada por (PRICE, ID) para recorrer PRODUCT_PRICE_ID_IDX
+    public ProductPage getProductsByPriceRangeAfter(int minPrice, int maxPrice, ProductCursor cursor, int size) {
+        if (cursor == null || cursor.getLastPrice() == null) {
+            String sql = "SELECT * FROM ( " +
+                    "SELECT p.*, b.NAME AS BRAND_NAME " +
+                    "FROM PRODUCT p " +
+                    "LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
+                    "WHERE p.PRICE BETWEEN ? AND ? " +
+                    "ORDER BY p.PRICE, p.ID " +
+                    ") WHERE ROWNUM <= ?";
+            return toPage(sql, new Object[]{minPrice, maxPrice, size + 1}, size, true);
+        }
+
+        String sql = "SELECT * FROM ( " +
+                "SELECT p.*, b.NAME AS BRAND_NAME " +
+                "FROM PRODUCT p " +
+                "LEFT JOIN BRAND b ON p.BRAND_ID = b.ID " +
+                "WHERE p.PRICE >= ? AND p.PRICE <= ? " +
+                "AND (p.PRICE > ? OR p.ID > ?) " +
+                "ORDER BY p.PRICE, p.ID " +
+                ") WHERE ROWNUM <= ?";
+        // El rango del índice (PRICE, ID) empieza en el precio del cursor, no en minPrice: cada página
+        // cuesta lo mismo sin importar cuántas se hayan recorrido antes
+        BigDecimal lowerBound = cursor.getLastPrice().max(BigDecimal.valueOf(minPrice));
+        return toPage(sql, new Object[]{lowerBound, maxPrice,
+                cursor.getLastPrice(), cursor.getLastId(), size + 1}, size, true);
+    }
+
+    /**
+     * Ejecuta una consulta que trae hasta size + 1 filas: la fila extra solo indica que hay otra página.
+     * El cursor lleva el precio exacto de la columna de la última fila entregada cuando se ordena por precio.
+     */
+    private ProductPage toPage(String sql, Object[] args, int size, boolean byPrice) {
+        BigDecimal[] lastPrice = {null};
+        List<Product> products = jdbcTemplate.query(sql, args, (rs, rowNum) -> {
+            if (byPrice && rowNum == size - 1) {
+                lastPrice[0] = rs.getBigDecimal("PRICE");
+            }
+            return productRowMapper.mapRow(rs, rowNum);
+        });
+        if (products.size() <= size) {
+            return new ProductPage(products, null);
+        }
+        products = new ArrayList<>(products.subList(0, size));
+        Product last = products.get(size - 1);
+        return new ProductPage(products, new ProductCursor(last.getId(), lastPrice[0]));
     }
 
     public int countAllProducts() {
@@ -138,6 +453,8 @@ public class ProductService {
 
     @Transactional
     public void updateProductWithCategory(Product product, Integer categoryId) {
+        Float oldPrice = findPrice(product.getId());
+
         // Actualizar producto en la tabla PRODUCT
         String updateProductSql = "UPDATE PRODUCT SET NAME = ?, PRICE = ?, DESCRIPTION = ?, STOCK = ?, IMAGE = ?, BRAND_ID = ? WHERE ID = ?";
         jdbcTemplate.update(updateProductSql,
@@ -145,6 +462,10 @@ public class ProductService {
                 product.getStock(), product.getImage(),
                 product.getBrand().getId(), product.getId()
         );
+        hotStockService.onStockOverwritten(product.getId(), product.getStock());
+        productCountService.onPriceChanged(oldPrice, product.getPrice());
+        catalogCache.evictProduct(product.getId());
+        indexProduct(product);
 
         // Eliminar todas las relaciones del producto en CATEGORY_PRODUCT
         categoryProductService.removeAllCategoriesFromProduct(product.getId());
@@ -159,7 +480,17 @@ public class ProductService {
         categoryProductService.removeAllCategoriesFromProduct(productId);
 
         // Eliminar el producto de la tabla PRODUCT
+        Float oldPrice = findPrice(productId);
+        hotStockService.forget(productId);
         String deleteProductSql = "DELETE FROM PRODUCT WHERE ID = ?";
-        jdbcTemplate.update(deleteProductSql, productId);
+        if (jdbcTemplate.update(deleteProductSql, productId) > 0) {
+            productCountService.onProductRemoved(oldPrice);
+        }
+        catalogCache.evictProduct(productId);
+        AfterCommit.run(() -> {
+            productSearchIndex.remove(productId);
+            facetIndex.removeProduct(productId);
+            suggestionIndex.markDirty();
+        });
     }
 }
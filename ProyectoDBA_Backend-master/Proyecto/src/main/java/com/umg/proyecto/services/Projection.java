@@ -0,0 +1,46 @@
+package com.umg.proyecto.services;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Columnas explícitas de una consulta junto con el RowMapper que las lee por posición (1..n, en el
+ * mismo orden en que se declaran). Reemplaza SELECT * y la búsqueda de cada columna por nombre en cada
+ * fila; cada endpoint elige la proyección con solo las columnas que devuelve.
+ */
+public final class Projection<T> {
+
+    private final String columns;
+    private final int width;
+    private final RowMapper<T> mapper;
+
+    private Projection(String[] columns, RowMapper<T> mapper) {
+        this.columns = String.join(", ", columns);
+        this.width = columns.length;
+        this.mapper = mapper;
+    }
+
+    // El mapper debe leer exactamente estas columnas, en este orden
+    public static <T> Projection<T> of(RowMapper<T> mapper, String... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("La proyección necesita al menos una columna");
+        }
+        return new Projection<>(columns, mapper);
+    }
+
+    // "SELECT <columnas> FROM <from>", donde from incluye la tabla y el resto de la consulta
+    public String select(String from) {
+        return "SELECT " + columns + " FROM " + from;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public RowMapper<T> getMapper() {
+        return mapper;
+    }
+}
@@ -1,11 +1,14 @@
 package com.umg.proyecto.services;
 
 import com.umg.proyecto.models.Product;
+import com.umg.proyecto.search.FacetIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class SeasonProductService {
@@ -13,30 +16,40 @@ public class SeasonProductService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    // Obtener productos asociados a una temporada
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private SeasonSchedule seasonSchedule;
+
+    @Autowired
+    private ProductService productService;
+
+    // Obtener productos asociados a una temporada, con su marca
     public List<Product> getProductsBySeason(Integer seasonId) {
-        String sql = "SELECT p.* FROM PRODUCT p " +
-                "JOIN SEASON_PRODUCT sp ON p.ID = sp.PRODUCT_ID " +
-                "WHERE sp.SEASON_ID = ?";
-        return jdbcTemplate.query(sql, new Object[]{seasonId}, (rs, rowNum) -> {
-            Product product = new Product();
-            product.setId(rs.getInt("ID"));
-            product.setName(rs.getString("NAME"));
-            product.setPrice(rs.getFloat("PRICE"));
-            product.setDescription(rs.getString("DESCRIPTION"));
-            product.setImage(rs.getString("IMAGE"));
-            product.setStock(rs.getInt("STOCK"));
-            return product;
-        });
+        // Las temporadas activas o próximas tienen sus IDs en memoria; el resto se consulta
+        int[] scheduled = seasonSchedule.getProductIds(seasonId);
+        List<Integer> productIds;
+        if (scheduled != null) {
+            productIds = Arrays.stream(scheduled).boxed().collect(Collectors.toList());
+        } else {
+            String sql = "SELECT PRODUCT_ID FROM SEASON_PRODUCT WHERE SEASON_ID = ? ORDER BY PRODUCT_ID";
+            productIds = jdbcTemplate.queryForList(sql, Integer.class, seasonId);
+        }
+        return productService.findByIds(productIds);
     }
 
     public void addProductToSeason(Integer productId, Integer seasonId) {
         String sql = "INSERT INTO SEASON_PRODUCT (PRODUCT_ID, SEASON_ID) VALUES (?, ?)";
         jdbcTemplate.update(sql, productId, seasonId);
+        AfterCommit.run(() -> facetIndex.reloadProduct(productId));
+        AfterCommit.run(() -> seasonSchedule.reloadSeason(seasonId));
     }
     public void removeProductFromSeason(Integer productId, Integer seasonId) {
         String sql = "DELETE FROM SEASON_PRODUCT WHERE PRODUCT_ID = ? AND SEASON_ID = ?";
         jdbcTemplate.update(sql, productId, seasonId);
+        AfterCommit.run(() -> facetIndex.reloadProduct(productId));
+        AfterCommit.run(() -> seasonSchedule.reloadSeason(seasonId));
     }
 
 }
@@ -0,0 +1,205 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.Season;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Temporadas habilitadas (STATUS = '1') que no han terminado, con los IDs de sus productos en memoria.
+ * Una temporada está activa entre START_DATE y END_DATE: en lugar de consultar la base en cada petición,
+ * se programa una tarea para el próximo inicio o fin y en ese momento se recalcula la lista de activas.
+ * Las escrituras de SeasonService y SeasonProductService recargan el calendario al confirmarse; como eso
+ * solo ocurre en la instancia que escribió, además se recarga completo cada catalog.seasons.resync-ms.
+ */
+@Service
+public class SeasonSchedule {
+
+    private static final Logger log = LoggerFactory.getLogger(SeasonSchedule.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private ScheduledFuture<?> nextBoundary;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            // Se vuelve a intentar en la primera consulta
+            log.warn("No se pudo cargar el calendario de temporadas: {}", e.getMessage());
+        }
+    }
+
+    // Recarga temporadas y productos; la llama SeasonService al confirmarse una escritura y, periódicamente,
+    // recoge las escrituras hechas desde otras instancias (son dos consultas sobre las temporadas no terminadas)
+    @Scheduled(fixedDelayString = "${catalog.seasons.resync-ms:60000}", initialDelayString = "${catalog.seasons.resync-ms:60000}")
+    public synchronized void rebuild() {
+        String seasonSql = "SELECT ID, NAME, START_DATE, END_DATE, DESCRIPTION, STATUS, IMAGE FROM SEASON " +
+                "WHERE STATUS = '1' AND END_DATE >= SYSDATE ORDER BY START_DATE, ID";
+        List<ScheduledSeason> seasons = jdbcTemplate.query(seasonSql, (rs, rowNum) -> {
+            Season season = new Season();
+            season.setId(rs.getInt("ID"));
+            season.setName(rs.getString("NAME"));
+            season.setDescription(rs.getString("DESCRIPTION"));
+            season.setStartDate(rs.getDate("START_DATE"));
+            season.setEndDate(rs.getDate("END_DATE"));
+            season.setImage(rs.getString("IMAGE"));
+            season.setStatus(rs.getString("STATUS").charAt(0));
+            // getDate descarta la hora; los límites del calendario usan la fecha completa
+            Timestamp start = rs.getTimestamp("START_DATE");
+            Timestamp end = rs.getTimestamp("END_DATE");
+            return new ScheduledSeason(season, start.getTime(), end.getTime());
+        });
+
+        String productSql = "SELECT sp.SEASON_ID, sp.PRODUCT_ID FROM SEASON_PRODUCT sp " +
+                "JOIN SEASON s ON s.ID = sp.SEASON_ID " +
+                "WHERE s.STATUS = '1' AND s.END_DATE >= SYSDATE ORDER BY sp.SEASON_ID, sp.PRODUCT_ID";
+        Map<Integer, List<Integer>> grouped = new HashMap<>();
+        jdbcTemplate.query(productSql, rs -> {
+            grouped.computeIfAbsent(rs.getInt("SEASON_ID"), id -> new ArrayList<>()).add(rs.getInt("PRODUCT_ID"));
+        });
+        Map<Integer, int[]> productIds = new HashMap<>();
+        grouped.forEach((seasonId, ids) -> productIds.put(seasonId, ids.stream().mapToInt(Integer::intValue).toArray()));
+
+        publish(new Snapshot(seasons, productIds, System.currentTimeMillis()));
+    }
+
+    // Recarga solo los productos de una temporada; la llama SeasonProductService
+    public synchronized void reloadSeason(Integer seasonId) {
+        Snapshot current = snapshot.get();
+        if (current == null || !current.scheduled(seasonId)) {
+            return;
+        }
+        String sql = "SELECT PRODUCT_ID FROM SEASON_PRODUCT WHERE SEASON_ID = ? ORDER BY PRODUCT_ID";
+        int[] ids = jdbcTemplate.queryForList(sql, Integer.class, seasonId).stream().mapToInt(Integer::intValue).toArray();
+
+        Map<Integer, int[]> productIds = new HashMap<>(current.productIds);
+        productIds.put(seasonId, ids);
+        publish(new Snapshot(current.seasons, productIds, System.currentTimeMillis()));
+    }
+
+    // Temporadas activas en este momento
+    public List<Season> getActiveSeasons() {
+        return current().active;
+    }
+
+    /**
+     * IDs de producto de una temporada habilitada y no terminada (activa o próxima), ordenados.
+     * Null si la temporada no está en el calendario: el llamador consulta la base.
+     */
+    public int[] getProductIds(Integer seasonId) {
+        Snapshot current = current();
+        if (!current.scheduled(seasonId)) {
+            return null;
+        }
+        return current.productIds.getOrDefault(seasonId, new int[0]);
+    }
+
+    // Tarea programada en el límite de una temporada: recalcula las activas con los mismos datos
+    private synchronized void advance() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            publish(new Snapshot(current.seasons, current.productIds, System.currentTimeMillis()));
+        }
+    }
+
+    // Llamado con el monitor tomado: publica el calendario y programa el siguiente cambio
+    private void publish(Snapshot next) {
+        snapshot.set(next);
+        if (nextBoundary != null) {
+            nextBoundary.cancel(false);
+            nextBoundary = null;
+        }
+        long boundary = next.nextBoundary();
+        if (boundary != Long.MAX_VALUE) {
+            nextBoundary = taskScheduler.schedule(this::advance, Instant.ofEpochMilli(boundary));
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            rebuild();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private static final class ScheduledSeason {
+        private final Season season;
+        private final long startMillis;
+        private final long endMillis;
+
+        private ScheduledSeason(Season season, long startMillis, long endMillis) {
+            this.season = season;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+
+    // Calendario inmutable evaluado en un instante
+    private static final class Snapshot {
+        private final List<ScheduledSeason> seasons;
+        private final Map<Integer, int[]> productIds;
+        private final List<Season> active;
+        private final long evaluatedAt;
+
+        private Snapshot(List<ScheduledSeason> seasons, Map<Integer, int[]> productIds, long now) {
+            this.seasons = seasons;
+            this.productIds = productIds;
+            this.evaluatedAt = now;
+            List<Season> activeSeasons = new ArrayList<>();
+            for (ScheduledSeason scheduled : seasons) {
+                if (scheduled.startMillis <= now && now <= scheduled.endMillis) {
+                    activeSeasons.add(scheduled.season);
+                }
+            }
+            this.active = Collections.unmodifiableList(activeSeasons);
+        }
+
+        private boolean scheduled(Integer seasonId) {
+            for (ScheduledSeason scheduled : seasons) {
+                if (scheduled.season.getId().equals(seasonId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Próximo inicio o fin posterior a la evaluación; una temporada deja de estar activa justo después de END_DATE
+        private long nextBoundary() {
+            long next = Long.MAX_VALUE;
+            for (ScheduledSeason scheduled : seasons) {
+                if (scheduled.startMillis > evaluatedAt) {
+                    next = Math.min(next, scheduled.startMillis);
+                } else if (scheduled.endMillis >= evaluatedAt) {
+                    next = Math.min(next, scheduled.endMillis + 1);
+                }
+            }
+            return next;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.umg.proyecto.services;
 
+import com.umg.proyecto.cache.CatalogVersions;
 import com.umg.proyecto.models.Season;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -13,26 +14,48 @@ public class SeasonService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    // Obtener todas las temporadas activas con fecha válida
+    @Autowired
+    private SeasonSchedule seasonSchedule;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    // Detalle de una temporada, con DESCRIPTION
+    private static final Projection<Season> SEASON = Projection.of((rs, rowNum) -> {
+        Season season = new Season();
+        season.setId(rs.getInt(1));
+        season.setName(rs.getString(2));
+        season.setStartDate(rs.getDate(3));
+        season.setEndDate(rs.getDate(4));
+        season.setStatus(rs.getString(5).charAt(0));
+        season.setImage(rs.getString(6));
+        season.setDescription(rs.getString(7));
+        return season;
+    }, "ID", "NAME", "START_DATE", "END_DATE", "STATUS", "IMAGE", "DESCRIPTION");
+
+    // Listado: sin DESCRIPTION, que el cliente obtiene con el detalle
+    private static final Projection<Season> SEASON_SUMMARY = Projection.of((rs, rowNum) -> {
+        Season season = new Season();
+        season.setId(rs.getInt(1));
+        season.setName(rs.getString(2));
+        season.setStartDate(rs.getDate(3));
+        season.setEndDate(rs.getDate(4));
+        season.setStatus(rs.getString(5).charAt(0));
+        season.setImage(rs.getString(6));
+        return season;
+    }, "ID", "NAME", "START_DATE", "END_DATE", "STATUS", "IMAGE");
+
+    // Temporadas habilitadas cuyo periodo incluye el momento actual (calendario en memoria)
     public List<Season> findActiveSeasons() {
-        String sql = "SELECT * FROM SEASON WHERE STATUS = '1' AND END_DATE >= SYSDATE";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Season season = new Season();
-            season.setId(rs.getInt("ID"));
-            season.setName(rs.getString("NAME"));
-            season.setDescription(rs.getString("DESCRIPTION"));
-            season.setStartDate(rs.getDate("START_DATE"));
-            season.setEndDate(rs.getDate("END_DATE"));
-            season.setImage(rs.getString("IMAGE"));
-            season.setStatus(rs.getString("STATUS").charAt(0));
-            return season;
-        });
+        return seasonSchedule.getActiveSeasons();
     }
 
     // Actualizar estado de una temporada
     public void updateStatus(Integer id, char status) {
         String sql = "UPDATE SEASON SET STATUS = ? WHERE ID = ?";
         jdbcTemplate.update(sql, String.valueOf(status), id);
+        AfterCommit.run(seasonSchedule::rebuild);
+        catalogVersions.bump(CatalogVersions.SEASONS);
     }
 
     public void save(Season season) {
@@ -40,45 +63,32 @@ public class SeasonService {
                 "VALUES (SEASON_SEQ.NEXTVAL, ?, ?, ?, ?, ?, ?)";
         jdbcTemplate.update(sql, season.getName(), season.getStartDate(), season.getEndDate(),
                 season.getDescription(), String.valueOf(season.getStatus()), season.getImage());
+        AfterCommit.run(seasonSchedule::rebuild);
+        catalogVersions.bump(CatalogVersions.SEASONS);
     }
     public void update(Season season) {
-        String sql = "UPDATE SEASON SET NAME = ?, START_DATE = ?, END_DATE = ?, DESCRIPTION = ?, " +
+        // El listado no trae DESCRIPTION: si el cliente edita desde él sin enviarla, se conserva la actual
+        String sql = "UPDATE SEASON SET NAME = ?, START_DATE = ?, END_DATE = ?, DESCRIPTION = NVL(?, DESCRIPTION), " +
                 "STATUS = ?, IMAGE = ? WHERE ID = ?";
         jdbcTemplate.update(sql, season.getName(), season.getStartDate(), season.getEndDate(),
                 season.getDescription(), String.valueOf(season.getStatus()), season.getImage(), season.getId());
+        AfterCommit.run(seasonSchedule::rebuild);
+        catalogVersions.bump(CatalogVersions.SEASONS);
     }
     public void delete(Integer id) {
         String sql = "DELETE FROM SEASON WHERE ID = ?";
         jdbcTemplate.update(sql, id);
+        AfterCommit.run(seasonSchedule::rebuild);
+        catalogVersions.bump(CatalogVersions.SEASONS);
     }
     public List<Season> findAllSeasons() {
-        String sql = "SELECT * FROM SEASON";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Season season = new Season();
-            season.setId(rs.getInt("ID"));
-            season.setName(rs.getString("NAME"));
-            season.setDescription(rs.getString("DESCRIPTION"));
-            season.setStartDate(rs.getDate("START_DATE"));
-            season.setEndDate(rs.getDate("END_DATE"));
-            season.setImage(rs.getString("IMAGE"));
-            season.setStatus(rs.getString("STATUS").charAt(0));
-            return season;
-        });
+        String sql = SEASON_SUMMARY.select("SEASON");
+        return jdbcTemplate.query(sql, SEASON_SUMMARY.getMapper());
     }
 
     public Season findById(Integer id) {
-        String sql = "SELECT * FROM SEASON WHERE ID = ?";
-        return jdbcTemplate.queryForObject(sql, new Object[]{id}, (rs, rowNum) -> {
-            Season season = new Season();
-            season.setId(rs.getInt("ID"));
-            season.setName(rs.getString("NAME"));
-            season.setDescription(rs.getString("DESCRIPTION"));
-            season.setStartDate(rs.getDate("START_DATE"));
-            season.setEndDate(rs.getDate("END_DATE"));
-            season.setImage(rs.getString("IMAGE"));
-            season.setStatus(rs.getString("STATUS").charAt(0));
-            return season;
-        });
+        String sql = SEASON.select("SEASON WHERE ID = ?");
+        return jdbcTemplate.queryForObject(sql, new Object[]{id}, SEASON.getMapper());
     }
 
 
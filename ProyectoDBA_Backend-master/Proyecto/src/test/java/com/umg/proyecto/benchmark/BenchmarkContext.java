@@ -0,0 +1,82 @@
+package com.umg.proyecto.benchmark;
+
+import com.umg.proyecto.ProyectoApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Levanta la aplicación sin servidor web sobre una base H2 en memoria en modo Oracle
+ * (esquema en src/test/resources/benchmark/schema.sql) y carga datos de prueba.
+ */
+public final class BenchmarkContext {
+
+    // Stock de sobra para que las iteraciones de checkout nunca se queden sin existencias
+    public static final int STOCK = 1_000_000_000;
+
+    private BenchmarkContext() {
+    }
+
+    // extraArgs: propiedades propias de un benchmark, en el mismo formato --clave=valor
+    public static ConfigurableApplicationContext start(String database, String... extraArgs) {
+        // Argumentos de línea de comandos: tienen prioridad sobre application.properties (que apunta a Oracle);
+        // SpringApplicationBuilder.properties(...) solo define valores por defecto y quedaría ignorado
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=Oracle;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.sql.init.mode=always",
+                "--spring.sql.init.schema-locations=classpath:benchmark/schema.sql",
+                // Sin trabajadores de checkout ni tareas periódicas frecuentes que compitan con la medición
+                "--checkout.async.workers=0",
+                "--checkout.async.requeue-ms=86400000",
+                "--catalog.facets.rebuild-ms=86400000",
+                "--catalog.search.rebuild-ms=86400000",
+                "--catalog.seasons.resync-ms=86400000",
+                "--inventory.hot.reconcile-ms=86400000",
+                "--logging.level.root=WARN",
+                // La bitácora del checkout queda con su nivel normal: su costo es parte de lo que se mide
+                "--logging.level.orderflow=INFO"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(ProyectoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    // Marcas, productos (IDs 1..products) y clientes (IDs 1..customers); las secuencias continúan después
+    public static void seed(JdbcTemplate jdbcTemplate, int brands, int products, int customers) {
+        List<Object[]> brandRows = new ArrayList<>(brands);
+        for (int i = 1; i <= brands; i++) {
+            brandRows.add(new Object[]{i, "Marca " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO BRAND (ID, NAME) VALUES (?, ?)", brandRows);
+
+        List<Object[]> productRows = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            productRows.add(new Object[]{i, "Producto " + i, (i % 1000) + 0.99f,
+                    "Descripción del producto " + i, STOCK, "img/" + i + ".png", i % brands + 1});
+            if (productRows.size() == 1000 || i == products) {
+                jdbcTemplate.batchUpdate("INSERT INTO PRODUCT (ID, NAME, PRICE, DESCRIPTION, STOCK, IMAGE, BRAND_ID) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", productRows);
+                productRows.clear();
+            }
+        }
+
+        List<Object[]> customerRows = new ArrayList<>(customers);
+        for (int i = 1; i <= customers; i++) {
+            customerRows.add(new Object[]{i, "Cliente", "Prueba " + i, "5555" + String.format("%04d", i % 10000),
+                    "Zona " + i, "A", "cliente" + i + "@correo.com", "secreto"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO CUSTOMER (ID, NAMES, LAST_NAMES, PHONE_NUMBER, ADDRESS, STATUS, EMAIL, PASSWORD) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", customerRows);
+
+        jdbcTemplate.execute("ALTER SEQUENCE BRAND_SEQ RESTART WITH " + (brands + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE PRODUCT_SEQ RESTART WITH " + (products + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE CUSTOMER_SEQ RESTART WITH " + (customers + 1));
+    }
+}
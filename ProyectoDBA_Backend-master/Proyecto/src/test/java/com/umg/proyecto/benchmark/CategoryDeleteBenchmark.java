@@ -0,0 +1,71 @@
+package com.umg.proyecto.benchmark;
+
+import com.umg.proyecto.services.CategoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eliminación de una subcategoría con muchos productos: las relaciones pasan a la categoría padre
+ * con sentencias masivas. Cada invocación arma su propia pareja padre/hija.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CategoryDeleteBenchmark {
+
+    @Param({"1000", "100000"})
+    private int links;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private CategoryService categoryService;
+    private int nextCategoryId = 0;
+    private int childId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("category-delete");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seed(jdbcTemplate, 20, links, 1);
+        categoryService = context.getBean(CategoryService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCategories() {
+        int parentId = ++nextCategoryId;
+        childId = ++nextCategoryId;
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (?, ?, NULL)", parentId, "Padre " + parentId);
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (?, ?, ?)", childId, "Hija " + childId, parentId);
+        jdbcTemplate.update("INSERT INTO CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID) SELECT ?, ID FROM PRODUCT WHERE ID <= ?", childId, links);
+        // Una décima parte ya estaba en el padre: el MERGE no debe duplicarla
+        jdbcTemplate.update("INSERT INTO CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID) SELECT ?, ID FROM PRODUCT WHERE ID <= ?", parentId, links / 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deleteSecondaryCategory() {
+        categoryService.delete(childId);
+    }
+}
@@ -0,0 +1,102 @@
+package com.umg.proyecto.benchmark;
+
+import com.umg.proyecto.models.OrderDetail;
+import com.umg.proyecto.models.OrderRequest;
+import com.umg.proyecto.services.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OrderService.processOrder completo (orden, detalles en lote y reserva de stock) con un cliente existente,
+ * para carritos de distintos tamaños. La variante concurrente mide el rendimiento con varios checkouts
+ * a la vez, donde un punto de serialización (como escribir a System.out) se nota.
+ * El pool tiene una conexión por hilo, para no medir la espera por conexión, y la salida estándar va a un
+ * archivo con el mismo búfer y autoflush que la consola de la JVM: en el fork de JMH iría por el canal
+ * hacia el proceso principal, que cuesta mucho más que una consola real.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final int PRODUCTS = 5000;
+    private static final int THREADS = 8;
+
+    @Param({"1", "10", "50"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private final AtomicInteger nextProduct = new AtomicInteger();
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        originalOut = System.out;
+        File out = Files.createTempFile("checkout-benchmark", ".log").toFile();
+        out.deleteOnExit();
+        // Igual que System.out de la JVM: búfer de 128 bytes y flush en cada println
+        System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(out), 128), true));
+        context = BenchmarkContext.start("checkout", "--db.pool.size=" + THREADS);
+        BenchmarkContext.seed(context.getBean(JdbcTemplate.class), 20, PRODUCTS, 100);
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.out.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public Integer processOrder() {
+        return orderService.processOrder(nextRequest());
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Integer processOrderConcurrent() {
+        return orderService.processOrder(nextRequest());
+    }
+
+    // Cada orden toma productos consecutivos distintos para no medir siempre las mismas filas
+    private OrderRequest nextRequest() {
+        int first = Math.floorMod(nextProduct.getAndAdd(cartSize), PRODUCTS);
+        List<OrderDetail> details = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            details.add(new OrderDetail(null, (first + i) % PRODUCTS + 1, 1));
+        }
+        return new OrderRequest(first % 100 + 1, null, details, "Pendiente", 10f * cartSize);
+    }
+}
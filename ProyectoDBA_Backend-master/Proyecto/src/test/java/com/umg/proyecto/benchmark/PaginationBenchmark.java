@@ -0,0 +1,70 @@
+package com.umg.proyecto.benchmark;
+
+import com.umg.proyecto.models.Product;
+import com.umg.proyecto.models.ProductCursor;
+import com.umg.proyecto.models.ProductPage;
+import com.umg.proyecto.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una página de productos a distintas profundidades: paginación por ROW_NUMBER (page/size)
+ * frente a keyset con cursor, que no depende de cuántas filas quedaron atrás.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "100", "1000"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("pagination");
+        BenchmarkContext.seed(context.getBean(JdbcTemplate.class), 20, 1000 * PAGE_SIZE + PAGE_SIZE, 1);
+        productService = context.getBean(ProductService.class);
+        // Los IDs son consecutivos: el cursor de la página N apunta al último ID de la página anterior
+        cursor = page == 1 ? null : new ProductCursor((page - 1) * PAGE_SIZE, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> offsetPage() {
+        return productService.getPaginatedProducts(page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public ProductPage keysetPage() {
+        return productService.getProductsAfter(cursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,169 @@
+package com.umg.proyecto.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umg.proyecto.models.Customer;
+import com.umg.proyecto.services.CustomerService;
+import com.umg.proyecto.services.Projection;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SELECT * con lectura de columnas por nombre (como estaban los servicios) frente a la proyección de
+ * CustomerService, que trae solo las columnas del endpoint y las lee por posición. Se mide el mapeo
+ * sobre un ResultSet en memoria y la consulta completa en H2; al terminar se imprime cuántos
+ * caracteres llegan de la base y cuántos bytes de JSON salen por fila con cada variante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    private static final String SELECT_STAR = "SELECT * FROM CUSTOMER";
+
+    @Param({"100", "5000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerService customerService;
+    private Projection<?> projection;
+
+    private SimpleResultSet starRows;
+    private SimpleResultSet projectedRows;
+
+    // Mapper por nombre de columna, igual al que usaba CustomerService antes de las proyecciones
+    private static final RowMapper<Customer> BY_NAME = (rs, rowNum) -> {
+        Customer customer = new Customer();
+        customer.setId(rs.getInt("ID"));
+        customer.setNames(rs.getString("NAMES"));
+        customer.setLastNames(rs.getString("LAST_NAMES"));
+        customer.setPhoneNumber(rs.getString("PHONE_NUMBER"));
+        customer.setAddress(rs.getString("ADDRESS"));
+        customer.setStatus(rs.getString("STATUS").charAt(0));
+        customer.setEmail(rs.getString("EMAIL"));
+        customer.setPassword(rs.getString("PASSWORD"));
+        return customer;
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkContext.start("projection");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seed(jdbcTemplate, 1, 1, rows);
+        customerService = context.getBean(CustomerService.class);
+        projection = (Projection<?>) readStatic(CustomerService.class, "CUSTOMER");
+
+        starRows = customerResultSet(true);
+        projectedRows = customerResultSet(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        List<Customer> star = jdbcTemplate.query(SELECT_STAR, BY_NAME);
+        List<Customer> projected = customerService.findAll();
+        System.out.printf("%nFilas: %d%n", rows);
+        System.out.printf("Caracteres desde la base por fila: SELECT * %.1f, proyección %.1f%n",
+                charsPerRow(SELECT_STAR), charsPerRow(projection.select("CUSTOMER")));
+        System.out.printf("Bytes de JSON por fila: SELECT * %.1f, proyección %.1f%n",
+                (double) objectMapper.writeValueAsBytes(star).length / rows,
+                (double) objectMapper.writeValueAsBytes(projected).length / rows);
+        context.close();
+    }
+
+    @Benchmark
+    public void mapByName(Blackhole blackhole) throws SQLException {
+        mapAll(BY_NAME, starRows, blackhole);
+    }
+
+    @Benchmark
+    public void mapByIndex(Blackhole blackhole) throws SQLException {
+        mapAll(projection.getMapper(), projectedRows, blackhole);
+    }
+
+    @Benchmark
+    public List<Customer> querySelectStar() {
+        return jdbcTemplate.query(SELECT_STAR, BY_NAME);
+    }
+
+    @Benchmark
+    public List<Customer> queryProjection() {
+        return customerService.findAll();
+    }
+
+    // Total de caracteres de todas las columnas devueltas, dividido entre las filas
+    private double charsPerRow(String sql) {
+        long[] chars = {0};
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            int columns = rs.getMetaData().getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                String value = rs.getString(i);
+                chars[0] += value == null ? 0 : value.length();
+            }
+        });
+        return (double) chars[0] / rows;
+    }
+
+    private SimpleResultSet customerResultSet(boolean withPassword) {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.setAutoClose(false);
+        rs.addColumn("ID", Types.INTEGER, 10, 0);
+        rs.addColumn("NAMES", Types.VARCHAR, 100, 0);
+        rs.addColumn("LAST_NAMES", Types.VARCHAR, 100, 0);
+        rs.addColumn("PHONE_NUMBER", Types.VARCHAR, 8, 0);
+        rs.addColumn("ADDRESS", Types.VARCHAR, 200, 0);
+        rs.addColumn("STATUS", Types.CHAR, 1, 0);
+        rs.addColumn("EMAIL", Types.VARCHAR, 100, 0);
+        if (withPassword) {
+            rs.addColumn("PASSWORD", Types.VARCHAR, 100, 0);
+        }
+        for (int i = 1; i <= rows; i++) {
+            if (withPassword) {
+                rs.addRow(i, "Cliente", "Prueba " + i, "55550000", "Zona " + i, "A", "cliente" + i + "@correo.com", "secreto");
+            } else {
+                rs.addRow(i, "Cliente", "Prueba " + i, "55550000", "Zona " + i, "A", "cliente" + i + "@correo.com");
+            }
+        }
+        return rs;
+    }
+
+    private static void mapAll(RowMapper<?> mapper, SimpleResultSet rs, Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        int rowNum = 0;
+        while (rs.next()) {
+            blackhole.consume(mapper.mapRow(rs, rowNum++));
+        }
+    }
+
+    private static Object readStatic(Class<?> type, String name) throws ReflectiveOperationException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.umg.proyecto.benchmark;
+
+import com.umg.proyecto.services.CategoryProductService;
+import com.umg.proyecto.services.CustomerService;
+import com.umg.proyecto.services.ProductService;
+import com.umg.proyecto.services.Projection;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de los RowMapper de los servicios sin base de datos: cada uno recorre un ResultSet en memoria
+ * con las mismas columnas que devuelven sus consultas. Los mappers y proyecciones son privados, se obtienen por reflexión.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    @Param({"20", "1000"})
+    private int rows;
+
+    private RowMapper<?> productMapper;
+    private RowMapper<?> categoryProductMapper;
+    private RowMapper<?> customerMapper;
+
+    private SimpleResultSet productRows;
+    private SimpleResultSet customerRows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        productMapper = (RowMapper<?>) readField(new ProductService(), "productRowMapper");
+        customerMapper = ((Projection<?>) readStatic(CustomerService.class, "CUSTOMER")).getMapper();
+        Class<?> mapperClass = Class.forName(CategoryProductService.class.getName() + "$ProductRowMapper");
+        Constructor<?> constructor = mapperClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        categoryProductMapper = (RowMapper<?>) constructor.newInstance();
+
+        productRows = new SimpleResultSet();
+        productRows.setAutoClose(false);
+        productRows.addColumn("ID", Types.INTEGER, 10, 0);
+        productRows.addColumn("NAME", Types.VARCHAR, 50, 0);
+        productRows.addColumn("PRICE", Types.FLOAT, 10, 2);
+        productRows.addColumn("DESCRIPTION", Types.VARCHAR, 200, 0);
+        productRows.addColumn("STOCK", Types.INTEGER, 10, 0);
+        productRows.addColumn("IMAGE", Types.VARCHAR, 200, 0);
+        productRows.addColumn("BRAND_ID", Types.INTEGER, 10, 0);
+        productRows.addColumn("BRAND_NAME", Types.VARCHAR, 50, 0);
+        for (int i = 1; i <= rows; i++) {
+            productRows.addRow(i, "Producto " + i, (double) (i % 1000) + 0.99, "Descripción del producto " + i,
+                    i * 7, "img/" + i + ".png", i % 20 + 1, "Marca " + (i % 20 + 1));
+        }
+
+        customerRows = new SimpleResultSet();
+        customerRows.setAutoClose(false);
+        customerRows.addColumn("ID", Types.INTEGER, 10, 0);
+        customerRows.addColumn("NAMES", Types.VARCHAR, 100, 0);
+        customerRows.addColumn("LAST_NAMES", Types.VARCHAR, 100, 0);
+        customerRows.addColumn("PHONE_NUMBER", Types.VARCHAR, 8, 0);
+        customerRows.addColumn("ADDRESS", Types.VARCHAR, 200, 0);
+        customerRows.addColumn("STATUS", Types.CHAR, 1, 0);
+        customerRows.addColumn("EMAIL", Types.VARCHAR, 100, 0);
+        for (int i = 1; i <= rows; i++) {
+            customerRows.addRow(i, "Cliente", "Prueba " + i, "55550000", "Zona " + i, "A", "cliente" + i + "@correo.com");
+        }
+    }
+
+    @Benchmark
+    public void productServiceMapper(Blackhole blackhole) throws SQLException {
+        mapAll(productMapper, productRows, blackhole);
+    }
+
+    @Benchmark
+    public void categoryProductServiceMapper(Blackhole blackhole) throws SQLException {
+        mapAll(categoryProductMapper, productRows, blackhole);
+    }
+
+    @Benchmark
+    public void customerServiceMapper(Blackhole blackhole) throws SQLException {
+        mapAll(customerMapper, customerRows, blackhole);
+    }
+
+    private static void mapAll(RowMapper<?> mapper, SimpleResultSet rs, Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        int rowNum = 0;
+        while (rs.next()) {
+            blackhole.consume(mapper.mapRow(rs, rowNum++));
+        }
+    }
+
+    private static Object readField(Object target, String name) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static Object readStatic(Class<?> type, String name) throws ReflectiveOperationException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(null);
+    }
+}
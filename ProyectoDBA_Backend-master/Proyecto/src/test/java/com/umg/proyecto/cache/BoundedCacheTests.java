@@ -0,0 +1,86 @@
+package com.umg.proyecto.cache;
+
+import com.umg.proyecto.models.Brand;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class BoundedCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("prueba", 2, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Integer, String> loader = key -> {
+            loads.incrementAndGet();
+            return "valor " + key;
+        };
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);  // 2 queda como el menos usado
+        cache.get(3, loader);
+        assertEquals(3, loads.get());
+
+        cache.get(1, loader);
+        assertEquals(3, loads.get());
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+        assertEquals(2L, cache.stats().get("evictions"));
+        assertEquals(2, cache.stats().get("size"));
+    }
+
+    @Test
+    void expiresAfterTtl() throws InterruptedException {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("prueba", 10, 20);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+        assertEquals("v1", cache.get(1, key -> "v" + loads.incrementAndGet()));
+
+        Thread.sleep(40);
+        assertEquals("v2", cache.get(1, key -> "v" + loads.incrementAndGet()));
+        assertEquals(1L, cache.stats().get("expirations"));
+    }
+
+    @Test
+    void loadCrossingInvalidationIsNotStored() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("prueba", 10, 60_000);
+        cache.get(1, key -> {
+            cache.invalidate(key);  // Una escritura confirmada mientras se consultaba
+            return "viejo";
+        });
+        assertEquals("nuevo", cache.get(1, key -> "nuevo"));
+    }
+
+    @Test
+    void getAllLoadsOnlyMissingKeys() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("prueba", 10, 60_000);
+        cache.get(1, key -> "uno");
+        AtomicInteger requested = new AtomicInteger();
+        Map<Integer, String> values = cache.getAll(List.of(1, 2, 3), missing -> {
+            requested.addAndGet(missing.size());
+            return missing.stream().filter(key -> key != 3).collect(Collectors.toMap(key -> key, key -> "v" + key));
+        });
+        assertEquals(2, requested.get());
+        assertEquals(Map.of(1, "uno", 2, "v2"), values);
+    }
+
+    @Test
+    void readersGetCopies() {
+        BoundedCache<Integer, Brand> cache = new BoundedCache<>("prueba", 10, 60_000,
+                brand -> new Brand(brand.getId(), brand.getName()));
+        Brand loaded = cache.get(1, key -> new Brand(key, "Marca"));
+        loaded.setName("Cambiada");
+
+        Brand cached = cache.get(1, key -> new Brand(key, "Otra"));
+        assertEquals("Marca", cached.getName());
+        assertNotSame(cached, cache.get(1, key -> null));
+    }
+}
@@ -0,0 +1,86 @@
+package com.umg.proyecto.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogVersionsTests {
+
+    private CatalogVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new CatalogVersions();
+        ReflectionTestUtils.setField(versions, "maxAgeMillis", 60_000L);
+    }
+
+    @Test
+    void matchingEtagAnswersNotModified() {
+        String etag = versions.etag(CatalogVersions.PRODUCTS);
+        assertTrue(versions.checkNotModified(request(etag), CatalogVersions.PRODUCTS));
+
+        versions.touch(CatalogVersions.PRODUCTS);
+        assertFalse(versions.checkNotModified(request(etag), CatalogVersions.PRODUCTS));
+        // Las demás familias no cambian
+        String brands = versions.etag(CatalogVersions.BRANDS);
+        assertTrue(versions.checkNotModified(request(brands), CatalogVersions.BRANDS));
+    }
+
+    @Test
+    void etagExpiresWithItsWindow() throws InterruptedException {
+        ReflectionTestUtils.setField(versions, "maxAgeMillis", 20L);
+        String etag = versions.etag(CatalogVersions.CATEGORIES);
+        Thread.sleep(50);
+        assertNotEquals(etag, versions.etag(CatalogVersions.CATEGORIES));
+        assertFalse(versions.checkNotModified(request(etag), CatalogVersions.CATEGORIES));
+    }
+
+    @Test
+    void serializedResponseIsReusedUntilVersionChanges() {
+        SerializedResponseCache cache = new SerializedResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "catalogVersions", versions);
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.respond(request(null), "brands:all", CatalogVersions.BRANDS, () -> List.of("Marca " + loads.incrementAndGet()));
+        // checkNotModified deja el ETag en la respuesta del servlet
+        String etag = versions.etag(CatalogVersions.BRANDS);
+        ResponseEntity<byte[]> notModified = cache.respond(request(etag), "brands:all", CatalogVersions.BRANDS,
+                () -> List.of("Marca " + loads.incrementAndGet()));
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        ResponseEntity<byte[]> again = cache.respond(request(null), "brands:all", CatalogVersions.BRANDS,
+                () -> List.of("Marca " + loads.incrementAndGet()));
+        assertEquals(1, loads.get());
+        assertEquals("[\"Marca 1\"]", new String(again.getBody()));
+
+        versions.touch(CatalogVersions.BRANDS);
+        ResponseEntity<byte[]> changed = cache.respond(request(etag), "brands:all", CatalogVersions.BRANDS,
+                () -> List.of("Marca " + loads.incrementAndGet()));
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertEquals("[\"Marca 2\"]", new String(changed.getBody()));
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalogo");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
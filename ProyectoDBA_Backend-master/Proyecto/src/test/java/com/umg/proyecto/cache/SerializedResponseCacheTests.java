@@ -0,0 +1,118 @@
+package com.umg.proyecto.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SerializedResponseCacheTests {
+
+    // Mayor que gzipMinBytes una vez serializada
+    private static final List<String> LARGE = Collections.nCopies(200, "Producto con nombre largo");
+    private static final List<String> SMALL = List.of("Marca");
+
+    private CatalogVersions versions;
+    private SerializedResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        versions = new CatalogVersions();
+        ReflectionTestUtils.setField(versions, "maxAgeMillis", 60_000L);
+        cache = new SerializedResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "catalogVersions", versions);
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", 1024);
+    }
+
+    @Test
+    void largeResponseIsSentGzippedWithItsOwnEtag() throws IOException {
+        ServletWebRequest request = request("gzip, deflate", null);
+        ResponseEntity<byte[]> response = cache.respond(request, "products", CatalogVersions.PRODUCTS, () -> LARGE);
+
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(LARGE), gunzip(response.getBody()));
+        String gzipEtag = etagOf(request);
+        assertEquals(gzipEtag(versions.etag(CatalogVersions.PRODUCTS)), gzipEtag);
+
+        // El ETag de una codificación no valida la otra
+        assertEquals(HttpStatus.NOT_MODIFIED, cache.respond(request("gzip", gzipEtag), "products",
+                CatalogVersions.PRODUCTS, () -> LARGE).getStatusCode());
+        assertEquals(HttpStatus.OK, cache.respond(request(null, gzipEtag), "products",
+                CatalogVersions.PRODUCTS, () -> LARGE).getStatusCode());
+    }
+
+    @Test
+    void smallResponseKeepsIdentityEtagEvenIfGzipIsAccepted() {
+        ServletWebRequest request = request("gzip", null);
+        ResponseEntity<byte[]> response = cache.respond(request, "brands", CatalogVersions.BRANDS, () -> SMALL);
+
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("[\"Marca\"]", new String(response.getBody()));
+        String etag = versions.etag(CatalogVersions.BRANDS);
+        assertEquals(etag, etagOf(request));
+
+        // Un cliente sin gzip que ya tiene esa representación recibe 304
+        assertEquals(HttpStatus.NOT_MODIFIED, cache.respond(request(null, etag), "brands",
+                CatalogVersions.BRANDS, () -> SMALL).getStatusCode());
+    }
+
+    @Test
+    void qualityValuesAreParsedLeniently() {
+        assertEquals("gzip", encodingFor("gzip;q=0.5"));
+        assertNull(encodingFor("gzip;q=0"));
+        assertNull(encodingFor("identity, gzip; q=0.0"));
+        assertEquals("gzip", encodingFor("*"));
+        // Un q mal formado no es un error del cliente: cuenta como q=1
+        assertEquals("gzip", encodingFor("gzip;q=abc"));
+        assertEquals("gzip", encodingFor("gzip;q="));
+    }
+
+    private String encodingFor(String acceptEncoding) {
+        ResponseEntity<byte[]> response = cache.respond(request(acceptEncoding, null), "products",
+                CatalogVersions.PRODUCTS, () -> LARGE);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    // checkNotModified deja el ETag en la respuesta del servlet
+    private static String etagOf(ServletWebRequest request) {
+        return request.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static ServletWebRequest request(String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/catalogo");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,163 @@
+package com.umg.proyecto.search;
+
+import com.umg.proyecto.services.CategoryTreeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class FacetIndexTests {
+
+    // Categorías: 10001 (principal) -> 10002; 10003 aparte
+    private static final int ROOT = 10001;
+    private static final int CHILD = 10002;
+    private static final int OTHER = 10003;
+    private static final int BRAND_A = 10001;
+    private static final int BRAND_B = 10002;
+    private static final int SEASON = 10001;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO BRAND (ID, NAME) VALUES (?, 'Faceta A')", BRAND_A);
+        jdbcTemplate.update("INSERT INTO BRAND (ID, NAME) VALUES (?, 'Faceta B')", BRAND_B);
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (?, 'Faceta raíz', NULL)", ROOT);
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (?, 'Faceta hija', ?)", CHILD, ROOT);
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (?, 'Faceta aparte', NULL)", OTHER);
+        jdbcTemplate.update("INSERT INTO SEASON (ID, NAME, START_DATE, END_DATE, STATUS) " +
+                "VALUES (?, 'Faceta temporada', DATE '2026-01-01', DATE '2026-12-31', 'A')", SEASON);
+        // ID, marca, precio, categoría directa
+        Object[][] products = {
+                {10001, BRAND_A, 20, CHILD},
+                {10002, BRAND_A, 120, ROOT},
+                {10003, BRAND_B, 20, CHILD},
+                {10004, BRAND_B, 600, OTHER}};
+        for (Object[] product : products) {
+            jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE, BRAND_ID) VALUES (?, ?, ?, 1, 'img', ?)",
+                    product[0], "Faceta " + product[0], product[2], product[1]);
+            jdbcTemplate.update("INSERT INTO CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID) VALUES (?, ?)", product[3], product[0]);
+        }
+        jdbcTemplate.update("INSERT INTO SEASON_PRODUCT (SEASON_ID, PRODUCT_ID) VALUES (?, 10001)", SEASON);
+        categoryTreeService.rebuild();
+        facetIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(facetIndex, "jdbcTemplate", jdbcTemplate);
+        cleanUp();
+        categoryTreeService.rebuild();
+        facetIndex.rebuild();
+    }
+
+    @Test
+    void filtersIntersectAcrossFacetsAndCategoryIncludesSubtree() {
+        assertEquals(List.of(10001, 10002), ids(facetIndex.search(List.of(BRAND_A), List.of(ROOT), null, null, 0, 10)));
+        assertEquals(List.of(10001, 10003), ids(facetIndex.search(List.of(BRAND_A, BRAND_B), List.of(CHILD), null, null, 0, 10)));
+        assertEquals(List.of(10001), ids(facetIndex.search(List.of(BRAND_A), null, List.of(SEASON), List.of(0), 0, 10)));
+        assertEquals(List.of(10002), ids(facetIndex.search(List.of(BRAND_A), null, null, null, 1, 10)));
+    }
+
+    @Test
+    void categoryCountsRollUpAndMatchFiltering() {
+        Map<String, Object> result = facetIndex.search(List.of(BRAND_A, BRAND_B), null, null, null, 0, 10);
+
+        // La principal cuenta sus productos directos y los de la hija, igual que al filtrar por ella
+        assertEquals(3, count(result, FacetIndex.CATEGORY, ROOT));
+        assertEquals(2, count(result, FacetIndex.CATEGORY, CHILD));
+        assertEquals(1, count(result, FacetIndex.CATEGORY, OTHER));
+        assertEquals(3, facetIndex.search(List.of(BRAND_A, BRAND_B), List.of(ROOT), null, null, 0, 10).get("total"));
+
+        // Cada faceta se cuenta con los filtros de las demás
+        Map<String, Object> filtered = facetIndex.search(List.of(BRAND_A), List.of(CHILD), null, null, 0, 10);
+        assertEquals(1, count(filtered, FacetIndex.BRAND, BRAND_A));
+        assertEquals(1, count(filtered, FacetIndex.BRAND, BRAND_B));
+        assertEquals(1, count(filtered, FacetIndex.CATEGORY, CHILD));
+        assertEquals(2, count(filtered, FacetIndex.CATEGORY, ROOT));
+        assertEquals(1, count(filtered, FacetIndex.SEASON, SEASON));
+    }
+
+    @Test
+    void reloadAndRemoveUpdateTheIndex() {
+        jdbcTemplate.update("UPDATE PRODUCT SET BRAND_ID = ?, PRICE = 60 WHERE ID = 10003", BRAND_A);
+        jdbcTemplate.update("INSERT INTO SEASON_PRODUCT (SEASON_ID, PRODUCT_ID) VALUES (?, 10003)", SEASON);
+        facetIndex.reloadProduct(10003);
+
+        assertEquals(List.of(10001, 10002, 10003), ids(facetIndex.search(List.of(BRAND_A), null, null, null, 0, 10)));
+        assertEquals(List.of(10003), ids(facetIndex.search(List.of(BRAND_A), null, List.of(SEASON), List.of(1), 0, 10)));
+
+        jdbcTemplate.update("DELETE FROM CATEGORY_PRODUCT WHERE PRODUCT_ID = 10004");
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID = 10004");
+        facetIndex.reloadProduct(10004);
+
+        assertEquals(List.of(), ids(facetIndex.search(List.of(BRAND_B), null, null, null, 0, 10)));
+        assertEquals(0, count(facetIndex.search(null, List.of(OTHER), null, null, 0, 10), FacetIndex.CATEGORY, OTHER));
+    }
+
+    @Test
+    void writesDuringRebuildAreReplayed() {
+        // Mientras la reconstrucción lee los enlaces, se confirma un producto nuevo y se quita otro ya leído
+        ReflectionTestUtils.setField(facetIndex, "jdbcTemplate", new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                super.query(sql, rch);
+                if (sql.contains("FROM CATEGORY_PRODUCT")) {
+                    jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE, BRAND_ID) " +
+                            "VALUES (10005, 'Faceta 10005', 20, 1, 'img', ?)", BRAND_A);
+                    facetIndex.reloadProduct(10005);
+                    facetIndex.removeProduct(10002);
+                }
+            }
+        });
+
+        facetIndex.rebuild();
+
+        assertEquals(List.of(10001, 10005), ids(facetIndex.search(List.of(BRAND_A), null, null, null, 0, 10)));
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM SEASON_PRODUCT WHERE PRODUCT_ID BETWEEN 10001 AND 10005");
+        jdbcTemplate.update("DELETE FROM CATEGORY_PRODUCT WHERE PRODUCT_ID BETWEEN 10001 AND 10005");
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 10001 AND 10005");
+        jdbcTemplate.update("DELETE FROM SEASON WHERE ID = ?", SEASON);
+        jdbcTemplate.update("UPDATE CATEGORY SET PARENT_CATEGORY_ID = NULL WHERE ID BETWEEN 10001 AND 10003");
+        jdbcTemplate.update("DELETE FROM CATEGORY WHERE ID BETWEEN 10001 AND 10003");
+        jdbcTemplate.update("DELETE FROM BRAND WHERE ID BETWEEN 10001 AND 10002");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> ids(Map<String, Object> result) {
+        return (List<Integer>) result.get("productIds");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int count(Map<String, Object> result, String facet, int id) {
+        List<Map<String, Object>> counts = (List<Map<String, Object>>) ((Map<String, Object>) result.get("facets")).get(facet);
+        return counts.stream()
+                .filter(entry -> entry.get("id").equals(id))
+                .map(entry -> (Integer) entry.get("count"))
+                .findFirst()
+                .orElse(0);
+    }
+}
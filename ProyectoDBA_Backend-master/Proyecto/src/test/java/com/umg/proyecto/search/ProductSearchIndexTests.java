@@ -0,0 +1,113 @@
+package com.umg.proyecto.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ProductSearchIndexTests {
+
+    private static final int BRAND_ID = 11001;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO BRAND (ID, NAME) VALUES (?, 'Cuarzo Hogar')", BRAND_ID);
+        // ID, nombre, descripción, marca
+        Object[][] products = {
+                {11001, "Cámara Fotográfica Ñandú", null, null},
+                {11002, "Lámpara Cuarzolita", null, null},
+                {11003, "Lámpara Cuarzo", null, null},
+                {11004, "Termo de acero", "Acabado cuarzo", null},
+                {11005, "Taza grande", null, BRAND_ID}};
+        for (Object[] product : products) {
+            jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, DESCRIPTION, STOCK, IMAGE, BRAND_ID) VALUES (?, ?, 10, ?, 1, 'img', ?)",
+                    product[0], product[1], product[2], product[3]);
+        }
+        productSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(productSearchIndex, "jdbcTemplate", jdbcTemplate);
+        cleanUp();
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void tokenizationFoldsCaseAccentsAndSeparators() {
+        assertEquals(List.of("smart", "tv", "55", "camara"), TextNormalizer.tokenize("Smart-TV de 55\" (Cámara)"));
+
+        assertEquals(List.of(11001), productSearchIndex.search("camara FOTOGRAFICA", 0, 10));
+        assertEquals(List.of(11001), productSearchIndex.search("ÑANDÚ", 0, 10));
+        assertEquals(List.of(11001), productSearchIndex.search("la nandu", 0, 10));
+    }
+
+    @Test
+    void prefixesExpandButRankBelowExactTerms() {
+        assertEquals(List.of(11001), productSearchIndex.search("fotog", 0, 10));
+        // Ambas palabras deben aparecer; "cuarzo" es exacta en 11003 y prefijo de "cuarzolita" en 11002
+        assertEquals(List.of(11003, 11002), productSearchIndex.search("lampara cuarzo", 0, 10));
+        assertEquals(List.of(11002), productSearchIndex.search("lampara cuarzo", 1, 10));
+    }
+
+    @Test
+    void fieldWeightsOrderResults() {
+        List<Integer> results = productSearchIndex.search("cuarzo", 0, 10);
+
+        assertEquals(4, results.size());
+        // Nombre antes que marca, y marca antes que descripción
+        assertEquals(11003, results.get(0));
+        assertTrue(results.indexOf(11005) < results.indexOf(11004));
+        assertEquals(11004, results.get(3));
+    }
+
+    @Test
+    void indexAndRemoveUpdateResults() {
+        productSearchIndex.index(11004, "Termo de acero", "Acabado mate", null);
+        productSearchIndex.remove(11005);
+
+        assertEquals(List.of(11003, 11002), productSearchIndex.search("cuarzo", 0, 10));
+        assertEquals(List.of(11004), productSearchIndex.search("mate", 0, 10));
+    }
+
+    @Test
+    void writesDuringRebuildAreReplayed() {
+        // Mientras la reconstrucción lee PRODUCT, se indexa un producto nuevo y se quita otro ya leído
+        ReflectionTestUtils.setField(productSearchIndex, "jdbcTemplate", new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch) {
+                super.query(sql, rch);
+                productSearchIndex.index(11006, "Lámpara Cuarzo XL", null, null);
+                productSearchIndex.remove(11002);
+            }
+        });
+
+        productSearchIndex.rebuild();
+
+        assertEquals(List.of(11003, 11006), productSearchIndex.search("lampara cuarzo", 0, 10));
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 11001 AND 11006");
+        jdbcTemplate.update("DELETE FROM BRAND WHERE ID = ?", BRAND_ID);
+    }
+}
@@ -0,0 +1,60 @@
+package com.umg.proyecto.search;
+
+import com.umg.proyecto.models.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTests {
+
+    @Test
+    void shortPrefixUsesPrecomputedTop() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(16, 2);
+        builder.add("Televisor Samsung", "PRODUCT", 1, 30);
+        builder.add("Teclado", "PRODUCT", 2, 20);
+        builder.add("Teléfono", "PRODUCT", 3, 10);
+        SuggestionTrie trie = builder.build();
+
+        assertEquals(List.of(1, 2), ids(trie.lookup("te", 10)));
+        assertEquals(List.of(1), ids(trie.lookup("sam", 10)));
+    }
+
+    @Test
+    void prefixLongerThanDepthFindsEntriesOutsideTop() {
+        // Profundidad 4 y top-2: "micr" guarda solo los dos micrófonos más vendidos
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(4, 2);
+        builder.add("Microfono de estudio", "PRODUCT", 1, 100);
+        builder.add("Microfono inalambrico", "PRODUCT", 2, 90);
+        builder.add("Microondas Samsung", "PRODUCT", 3, 5);
+        builder.add("Microondas LG", "PRODUCT", 4, 1);
+        builder.add("Horno microondas", "PRODUCT", 5, 3);
+        SuggestionTrie trie = builder.build();
+
+        // Ordenadas por puntaje, también las que coinciden desde una palabra intermedia
+        assertEquals(List.of(3, 5, 4), ids(trie.lookup("microondas", 10)));
+        assertEquals(List.of(3, 5), ids(trie.lookup("Microondas", 2)));
+        assertEquals(List.of(4), ids(trie.lookup("microondas lg", 10)));
+        assertTrue(trie.lookup("microscopio", 10).isEmpty());
+    }
+
+    @Test
+    void repeatedWordIsSuggestedOnce() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(3, 5);
+        builder.add("Cable cable", "PRODUCT", 1, 1);
+        SuggestionTrie trie = builder.build();
+
+        assertEquals(List.of(1), ids(trie.lookup("cable", 10)));
+    }
+
+    @Test
+    void emptyTrieAnswersNothing() {
+        assertTrue(SuggestionTrie.empty().lookup("microondas", 10).isEmpty());
+    }
+
+    private static List<Integer> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getId).toList();
+    }
+}
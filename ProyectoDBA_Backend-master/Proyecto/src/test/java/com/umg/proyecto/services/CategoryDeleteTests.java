@@ -0,0 +1,103 @@
+package com.umg.proyecto.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class CategoryDeleteTests {
+
+    // 3001 (principal) -> 3002 -> 3003; 3004 es principal y sin productos
+    private static final int PARENT = 3001;
+    private static final int CHILD = 3002;
+    private static final int GRANDCHILD = 3003;
+    private static final int EMPTY_PRINCIPAL = 3004;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM CATEGORY_PRODUCT WHERE CATEGORY_ID BETWEEN 3001 AND 3005");
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 3001 AND 3004");
+        jdbcTemplate.update("UPDATE CATEGORY SET PARENT_CATEGORY_ID = NULL WHERE ID BETWEEN 3001 AND 3005");
+        jdbcTemplate.update("DELETE FROM CATEGORY WHERE ID BETWEEN 3001 AND 3005");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (3001, 'Borrado padre', NULL)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (3002, 'Borrado hija', 3001)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (3003, 'Borrado nieta', 3002)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (3004, 'Borrado vacía', NULL)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (3005, 'Borrado hija vacía', 3004)");
+        for (int id = 3001; id <= 3004; id++) {
+            jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (?, ?, 10, 1, 'img')",
+                    id, "Borrado " + id);
+        }
+        // 3001 ya está en la categoría padre: al moverse no se debe duplicar
+        int[][] links = {{PARENT, 3001}, {CHILD, 3001}, {CHILD, 3002}, {CHILD, 3003}, {GRANDCHILD, 3004}};
+        for (int[] link : links) {
+            jdbcTemplate.update("INSERT INTO CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID) VALUES (?, ?)", link[0], link[1]);
+        }
+    }
+
+    @Test
+    void secondaryCategoryMovesLinksAndChildrenToParent() {
+        Map<String, Object> preview = categoryService.previewDelete(CHILD);
+        assertEquals(3, preview.get("productLinksRemoved"));
+        assertEquals(2, preview.get("productLinksMovedToParent"));
+        assertEquals(1, preview.get("subcategoriesReparented"));
+        assertEquals(true, preview.get("allowed"));
+
+        categoryService.delete(CHILD);
+
+        assertEquals(List.of(3001, 3002, 3003), productsOf(PARENT));
+        assertEquals(0, count("SELECT COUNT(*) FROM CATEGORY WHERE ID = ?", CHILD));
+        assertEquals(0, count("SELECT COUNT(*) FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ?", CHILD));
+        assertEquals(PARENT, parentOf(GRANDCHILD));
+        assertEquals(List.of(3004), productsOf(GRANDCHILD));
+    }
+
+    @Test
+    void principalWithProductsIsRejected() {
+        assertEquals(false, categoryService.previewDelete(PARENT).get("allowed"));
+
+        assertThrows(RuntimeException.class, () -> categoryService.delete(PARENT));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM CATEGORY WHERE ID = ?", PARENT));
+        assertEquals(PARENT, parentOf(CHILD));
+        assertEquals(List.of(3001), productsOf(PARENT));
+    }
+
+    @Test
+    void principalWithoutProductsPromotesChildren() {
+        categoryService.delete(EMPTY_PRINCIPAL);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM CATEGORY WHERE ID = ?", EMPTY_PRINCIPAL));
+        assertNull(parentOf(3005));
+    }
+
+    private List<Integer> productsOf(int categoryId) {
+        return jdbcTemplate.queryForList("SELECT PRODUCT_ID FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ? ORDER BY PRODUCT_ID",
+                Integer.class, categoryId);
+    }
+
+    private Integer parentOf(int categoryId) {
+        return jdbcTemplate.queryForObject("SELECT PARENT_CATEGORY_ID FROM CATEGORY WHERE ID = ?", Integer.class, categoryId);
+    }
+
+    private int count(String sql, int id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
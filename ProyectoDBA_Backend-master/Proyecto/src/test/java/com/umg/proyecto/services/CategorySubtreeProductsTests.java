@@ -0,0 +1,80 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.Product;
+import com.umg.proyecto.models.ProductCursor;
+import com.umg.proyecto.models.ProductPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class CategorySubtreeProductsTests {
+
+    // 5001 -> 5002 -> 5003; 5004 queda fuera del subárbol
+    private static final List<Integer> SUBTREE = List.of(5001, 5002, 5003);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM CATEGORY_PRODUCT WHERE CATEGORY_ID BETWEEN 5001 AND 5004");
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 5001 AND 5006");
+        jdbcTemplate.update("DELETE FROM CATEGORY WHERE ID IN (5003, 5004)");
+        jdbcTemplate.update("DELETE FROM CATEGORY WHERE ID = 5002");
+        jdbcTemplate.update("DELETE FROM CATEGORY WHERE ID = 5001");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (5001, 'Subárbol raíz', NULL)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (5002, 'Subárbol hijo', 5001)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (5003, 'Subárbol nieto', 5002)");
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (5004, 'Fuera del subárbol', NULL)");
+        for (int id = 5001; id <= 5006; id++) {
+            jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (?, ?, 10, 1, 'img')",
+                    id, "Subárbol " + id);
+        }
+        // 5002 está en dos categorías del subárbol y debe salir una sola vez; 5006 solo está fuera
+        int[][] links = {{5001, 5001}, {5001, 5002}, {5002, 5002}, {5002, 5003}, {5003, 5004}, {5003, 5005}, {5004, 5006}};
+        for (int[] link : links) {
+            jdbcTemplate.update("INSERT INTO CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID) VALUES (?, ?)", link[0], link[1]);
+        }
+    }
+
+    @Test
+    void pagesWalkSubtreeOnceInIdOrder() {
+        List<Integer> seen = new ArrayList<>();
+        ProductPage page = productService.findByCategorySubtreeAfter(5001, SUBTREE, null, 2);
+        seen.addAll(ids(page.getProducts()));
+        while (page.hasMore()) {
+            assertEquals(2, page.getProducts().size());
+            ProductCursor cursor = ProductCursor.decode(page.getNextCursor().encode());
+            page = productService.findByCategorySubtreeAfter(5001, SUBTREE, cursor, 2);
+            seen.addAll(ids(page.getProducts()));
+        }
+        assertEquals(List.of(5001, 5002, 5003, 5004, 5005), seen);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        ProductPage page = productService.findByCategorySubtreeAfter(5002, List.of(5002, 5003), new ProductCursor(5003, null), 10);
+        assertEquals(List.of(5004, 5005), ids(page.getProducts()));
+        assertFalse(page.hasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
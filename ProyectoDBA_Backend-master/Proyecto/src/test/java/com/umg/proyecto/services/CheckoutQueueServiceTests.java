@@ -0,0 +1,131 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.CheckoutClaim;
+import com.umg.proyecto.models.CheckoutStatus;
+import com.umg.proyecto.models.OrderDetail;
+import com.umg.proyecto.models.OrderRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class CheckoutQueueServiceTests {
+
+    private static final int CUSTOMER_ID = 9001;
+    private static final int PRODUCT_ID = 9001;
+
+    @Autowired
+    private CheckoutQueueService checkoutQueueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM CHECKOUT_OUTBOX");
+        jdbcTemplate.update("DELETE FROM \"ORDER\" WHERE CUSTOMER_ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID = ?", PRODUCT_ID);
+        jdbcTemplate.update("DELETE FROM CUSTOMER WHERE ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("INSERT INTO CUSTOMER (ID, NAMES, LAST_NAMES, PHONE_NUMBER, ADDRESS, STATUS, EMAIL, PASSWORD) " +
+                "VALUES (?, 'Cliente', 'Cola', '55550000', 'Zona 1', 'A', 'cola@correo.com', 'secreto')", CUSTOMER_ID);
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (?, 'Producto cola', 10, 10, 'img')",
+                PRODUCT_ID);
+    }
+
+    @Test
+    void claimedRequestIsCompletedWithItsOrder() {
+        String token = checkoutQueueService.enqueue(request(2));
+
+        List<CheckoutClaim> claimed = checkoutQueueService.claim(10);
+        assertEquals(1, claimed.size());
+        assertEquals(1, claimed.get(0).getAttempt());
+        assertEquals(CheckoutQueueService.PROCESSING, checkoutQueueService.findStatus(token).getStatus());
+
+        checkoutQueueService.process(claimed.get(0));
+
+        CheckoutStatus status = checkoutQueueService.findStatus(token);
+        assertEquals(CheckoutQueueService.COMPLETED, status.getStatus());
+        assertNotNull(status.getOrderId());
+        assertEquals(8, productStock());
+        assertEquals(0, checkoutQueueService.claim(10).size());
+    }
+
+    @Test
+    void staleClaimDoesNotCreateSecondOrder() {
+        String token = checkoutQueueService.enqueue(request(2));
+        CheckoutClaim first = checkoutQueueService.claim(10).get(0);
+
+        // El trabajador se demoró: la solicitud vuelve a la cola (como requeueStale) y otro la toma
+        jdbcTemplate.update("UPDATE CHECKOUT_OUTBOX SET STATUS = ? WHERE TOKEN = ?", CheckoutQueueService.PENDING, token);
+        CheckoutClaim second = checkoutQueueService.claim(10).get(0);
+        assertEquals(2, second.getAttempt());
+
+        checkoutQueueService.process(second);
+        Integer orderId = checkoutQueueService.findStatus(token).getOrderId();
+        assertNotNull(orderId);
+
+        // El primer reclamo termina tarde: no crea otra orden ni cambia el estado
+        checkoutQueueService.process(first);
+        CheckoutStatus status = checkoutQueueService.findStatus(token);
+        assertEquals(CheckoutQueueService.COMPLETED, status.getStatus());
+        assertEquals(orderId, status.getOrderId());
+        assertEquals(8, productStock());
+        assertEquals(1, orderCount());
+    }
+
+    @Test
+    void staleClaimCannotRejectCurrentOne() {
+        String token = checkoutQueueService.enqueue(request(50));
+        CheckoutClaim first = checkoutQueueService.claim(10).get(0);
+        jdbcTemplate.update("UPDATE CHECKOUT_OUTBOX SET STATUS = ? WHERE TOKEN = ?", CheckoutQueueService.PENDING, token);
+        checkoutQueueService.claim(10);
+
+        checkoutQueueService.process(first);
+
+        CheckoutStatus status = checkoutQueueService.findStatus(token);
+        assertEquals(CheckoutQueueService.PROCESSING, status.getStatus());
+        assertNull(status.getOrderId());
+        assertEquals(0, orderCount());
+    }
+
+    @Test
+    void errorIsTruncatedToColumnBytes() {
+        String ascii = "x".repeat(400);
+        assertSame(ascii, CheckoutQueueService.truncate(ascii));
+
+        // 300 caracteres pero 600 bytes en UTF-8: cabían por longitud, no por bytes
+        String accented = "ñ".repeat(300);
+        assertEquals("ñ".repeat(200), CheckoutQueueService.truncate(accented));
+
+        // No se parte un carácter de varios bytes ni un par sustituto
+        String mixed = "a" + "€".repeat(133) + "\uD83D\uDE00";
+        String truncated = CheckoutQueueService.truncate(mixed);
+        assertEquals("a" + "€".repeat(133), truncated);
+        assertEquals(400, truncated.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private OrderRequest request(int qty) {
+        List<OrderDetail> details = List.of(new OrderDetail(null, PRODUCT_ID, qty));
+        return new OrderRequest(CUSTOMER_ID, null, details, "Pendiente", 10f * qty);
+    }
+
+    private int productStock() {
+        return jdbcTemplate.queryForObject("SELECT STOCK FROM PRODUCT WHERE ID = ?", Integer.class, PRODUCT_ID);
+    }
+
+    private int orderCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"ORDER\" WHERE CUSTOMER_ID = ?", Integer.class, CUSTOMER_ID);
+    }
+}
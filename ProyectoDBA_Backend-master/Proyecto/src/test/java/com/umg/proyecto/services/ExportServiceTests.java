@@ -0,0 +1,102 @@
+package com.umg.proyecto.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ExportServiceTests {
+
+    private static final int CUSTOMER_ID = 6001;
+    private static final int FIRST_ORDER = 600_001;
+
+    // ORDER_ID -> PRODUCT_ID de sus líneas; la orden 600002 no cabe en un bloque
+    private static final int[][] ORDERS = {{6001, 6002}, {6001, 6002, 6003, 6004, 6005}, {6003}, {6004, 6005}};
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Object chunkRows;
+
+    @BeforeEach
+    void setUp() {
+        // Bloques de 3 filas para cruzar los bordes de bloque con pocos datos
+        chunkRows = ReflectionTestUtils.getField(exportService, "chunkRows");
+        ReflectionTestUtils.setField(exportService, "chunkRows", 3);
+        jdbcTemplate.update("DELETE FROM \"ORDER\" WHERE CUSTOMER_ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 6001 AND 6007");
+        jdbcTemplate.update("DELETE FROM CUSTOMER WHERE ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("INSERT INTO CUSTOMER (ID, NAMES, LAST_NAMES, PHONE_NUMBER, ADDRESS, STATUS, EMAIL, PASSWORD) " +
+                "VALUES (?, 'Cliente', 'Export', '55550001', 'Zona 2', 'A', 'export@correo.com', 'secreto')", CUSTOMER_ID);
+        for (int id = 6001; id <= 6007; id++) {
+            jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (?, ?, 10, 1, 'img')",
+                    id, "Exportado " + id);
+        }
+        for (int i = 0; i < ORDERS.length; i++) {
+            jdbcTemplate.update("INSERT INTO \"ORDER\" (ID, PURCHASE_DATE, CUSTOMER_ID, TOTAL, STATUS) " +
+                    "VALUES (?, CURRENT_DATE, ?, 10, 'Pendiente')", FIRST_ORDER + i, CUSTOMER_ID);
+            for (int productId : ORDERS[i]) {
+                jdbcTemplate.update("INSERT INTO ORDER_DETAIL (ORDER_ID, PRODUCT_ID, QTY) VALUES (?, ?, 1)",
+                        FIRST_ORDER + i, productId);
+            }
+        }
+    }
+
+    @AfterEach
+    void restoreChunkRows() {
+        ReflectionTestUtils.setField(exportService, "chunkRows", chunkRows);
+    }
+
+    @Test
+    void orderDetailsCrossChunksWithoutSplittingOrders() throws IOException {
+        List<String> lines = export("order-details", ExportService.CSV, FIRST_ORDER - 1, null);
+
+        assertEquals("orderId,productId,qty", lines.get(0));
+        assertEquals(List.of(
+                "600001,6001,1", "600001,6002,1",
+                "600002,6001,1", "600002,6002,1", "600002,6003,1", "600002,6004,1", "600002,6005,1",
+                "600003,6003,1",
+                "600004,6004,1", "600004,6005,1"), lines.subList(1, lines.size()));
+    }
+
+    @Test
+    void limitCompletesLastOrder() throws IOException {
+        List<String> lines = export("order-details", ExportService.CSV, FIRST_ORDER - 1, 3);
+
+        // 2 líneas de 600001 y las 5 de 600002, aunque pasen del límite
+        assertEquals(8, lines.size());
+        assertEquals("600002,6005,1", lines.get(7));
+    }
+
+    @Test
+    void productsStopAtLimitAcrossChunks() throws IOException {
+        List<String> lines = export("products", ExportService.NDJSON, 6000, 5);
+
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"id\":6001,"));
+        assertTrue(lines.get(4).startsWith("{\"id\":6005,"));
+    }
+
+    private List<String> export(String entity, String format, Integer afterId, Integer limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(entity, format, afterId, limit, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
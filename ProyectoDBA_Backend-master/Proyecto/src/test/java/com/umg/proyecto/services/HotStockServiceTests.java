@@ -0,0 +1,137 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.cache.CatalogCache;
+import com.umg.proyecto.models.OrderDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class HotStockServiceTests {
+
+    private static final int PRODUCT_ID = 8001;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ?", PRODUCT_ID);
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID = ?", PRODUCT_ID);
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (?, 'Producto caliente', 10, 100, 'img')",
+                PRODUCT_ID);
+        hotStockService.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(hotStockService, "catalogCache", catalogCache);
+    }
+
+    @Test
+    void demoteWithoutSlotsKeepsStock() {
+        assertFalse(hotStockService.demote(PRODUCT_ID));
+        assertEquals(100, productStock());
+    }
+
+    @Test
+    void promoteTwiceIsRejected() {
+        assertTrue(hotStockService.promote(PRODUCT_ID, 4));
+        assertFalse(hotStockService.promote(PRODUCT_ID, 4));
+        assertEquals(4, slotCount());
+        assertEquals(100, slotStock());
+    }
+
+    @Test
+    void slotCountIsBounded() {
+        assertThrows(IllegalArgumentException.class, () -> hotStockService.promote(PRODUCT_ID, 100_000));
+        assertEquals(0, slotCount());
+    }
+
+    @Test
+    void reconcileTouchesOnlyProductsThatDrifted() {
+        hotStockService.promote(PRODUCT_ID, 4);
+        CatalogCache cache = mock(CatalogCache.class);
+        ReflectionTestUtils.setField(hotStockService, "catalogCache", cache);
+
+        // Recién promovido: PRODUCT.STOCK ya coincide con la suma de las ranuras
+        hotStockService.reconcile();
+        verifyNoInteractions(cache);
+
+        jdbcTemplate.update("UPDATE PRODUCT_STOCK_SLOT SET STOCK = STOCK - 5 WHERE PRODUCT_ID = ? AND SLOT = 0", PRODUCT_ID);
+        hotStockService.reconcile();
+        verify(cache).evictProduct(PRODUCT_ID);
+        assertEquals(95, productStock());
+    }
+
+    @Test
+    void reservationsOnHotProductUseSlotsAndReconcile() {
+        hotStockService.promote(PRODUCT_ID, 4);
+        productService.reserveStock(List.of(new OrderDetail(null, PRODUCT_ID, 30)));
+
+        assertEquals(70, slotStock());
+        hotStockService.reconcile();
+        assertEquals(70, productStock());
+
+        assertTrue(hotStockService.demote(PRODUCT_ID));
+        assertEquals(0, slotCount());
+        assertEquals(70, productStock());
+    }
+
+    @Test
+    void promotionFromAnotherInstanceIsSeenByColdPath() {
+        // Ranuras creadas sin pasar por este HotStockService: su pista en memoria no las conoce
+        jdbcTemplate.update("UPDATE PRODUCT SET STOCK = 0 WHERE ID = ?", PRODUCT_ID);
+        jdbcTemplate.update("INSERT INTO PRODUCT_STOCK_SLOT (PRODUCT_ID, SLOT, STOCK) VALUES (?, 0, 50)", PRODUCT_ID);
+        jdbcTemplate.update("INSERT INTO PRODUCT_STOCK_SLOT (PRODUCT_ID, SLOT, STOCK) VALUES (?, 1, 50)", PRODUCT_ID);
+        assertFalse(hotStockService.isKnownHot(PRODUCT_ID));
+
+        productService.reserveStock(List.of(new OrderDetail(null, PRODUCT_ID, 60)));
+
+        assertEquals(40, slotStock());
+        assertEquals(0, productStock());
+        assertThrows(InsufficientStockException.class,
+                () -> productService.reserveStock(List.of(new OrderDetail(null, PRODUCT_ID, 41))));
+        hotStockService.reconcile();
+        assertEquals(40, productStock());
+    }
+
+    private int productStock() {
+        return jdbcTemplate.queryForObject("SELECT STOCK FROM PRODUCT WHERE ID = ?", Integer.class, PRODUCT_ID);
+    }
+
+    private int slotStock() {
+        return jdbcTemplate.queryForObject("SELECT NVL(SUM(STOCK), 0) FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ?",
+                Integer.class, PRODUCT_ID);
+    }
+
+    private int slotCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRODUCT_STOCK_SLOT WHERE PRODUCT_ID = ?",
+                Integer.class, PRODUCT_ID);
+    }
+}
@@ -0,0 +1,112 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.Order;
+import com.umg.proyecto.models.OrderCursor;
+import com.umg.proyecto.models.OrderQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderSearchTests {
+
+    private static final int CUSTOMER_ID = 1001;
+
+    // ID, fecha de compra, total, estado; las tres primeras empatan en la fecha y se ordenan por ID
+    private static final Object[][] ORDERS = {
+            {100_001, "2026-03-01 10:00:00", 10f, "Pendiente"},
+            {100_002, "2026-03-01 10:00:00", 20f, "Pendiente"},
+            {100_003, "2026-03-01 10:00:00", 30f, "Entregado"},
+            {100_004, "2026-03-02 09:00:00", 40f, "Pendiente"},
+            {100_005, "2026-03-03 23:59:59", 50f, "Entregado"}};
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM \"ORDER\" WHERE CUSTOMER_ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("DELETE FROM CUSTOMER WHERE ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("INSERT INTO CUSTOMER (ID, NAMES, LAST_NAMES, PHONE_NUMBER, ADDRESS, STATUS, EMAIL, PASSWORD) " +
+                "VALUES (?, 'Cliente', 'Historial', '55551001', 'Zona 5', 'A', 'historial@correo.com', 'secreto')", CUSTOMER_ID);
+        for (Object[] order : ORDERS) {
+            jdbcTemplate.update("INSERT INTO \"ORDER\" (ID, PURCHASE_DATE, CUSTOMER_ID, TOTAL, STATUS) VALUES (?, ?, ?, ?, ?)",
+                    order[0], Timestamp.valueOf((String) order[1]), CUSTOMER_ID, order[2], order[3]);
+        }
+    }
+
+    @Test
+    void cursorWalksNewestFirstThroughTies() {
+        assertEquals(List.of(100_005, 100_004, 100_003, 100_002, 100_001), walk(query(false), 2));
+    }
+
+    @Test
+    void cursorWalksOldestFirstThroughTies() {
+        assertEquals(List.of(100_001, 100_002, 100_003, 100_004, 100_005), walk(query(true), 2));
+    }
+
+    @Test
+    void dateFiltersCoverWholeDays() {
+        OrderQuery upTo = query(true);
+        upTo.setToDate(LocalDate.of(2026, 3, 2));
+        assertEquals(List.of(100_001, 100_002, 100_003, 100_004), walk(upTo, 10));
+
+        OrderQuery from = query(true);
+        from.setFromDate(LocalDate.of(2026, 3, 2));
+        from.setToDate(LocalDate.of(2026, 3, 3));
+        assertEquals(List.of(100_004, 100_005), walk(from, 10));
+    }
+
+    @Test
+    void statusAndTotalFiltersKeepCursorOrder() {
+        OrderQuery delivered = query(false);
+        delivered.setStatus("Entregado");
+        assertEquals(List.of(100_005, 100_003), walk(delivered, 1));
+
+        OrderQuery range = query(true);
+        range.setMinTotal(20f);
+        range.setMaxTotal(40f);
+        assertEquals(List.of(100_002, 100_003, 100_004), walk(range, 2));
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("no-es-un-cursor"));
+    }
+
+    private static OrderQuery query(boolean ascending) {
+        OrderQuery query = new OrderQuery();
+        query.setCustomerId(CUSTOMER_ID);
+        query.setAscending(ascending);
+        return query;
+    }
+
+    // Pide páginas de limit filas hasta que una llega incompleta, pasando el cursor como lo haría un cliente
+    private List<Integer> walk(OrderQuery query, int limit) {
+        query.setLimit(limit);
+        List<Integer> seen = new ArrayList<>();
+        while (true) {
+            List<Order> page = orderService.searchOrders(query);
+            page.forEach(order -> seen.add(order.getId()));
+            if (page.size() < limit) {
+                return seen;
+            }
+            query.setCursor(OrderCursor.decode(OrderCursor.after(page.get(page.size() - 1)).encode()));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.umg.proyecto.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductCountServiceTests {
+
+    private ProductCountService service;
+    private FakeJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductCountService();
+        jdbcTemplate = new FakeJdbcTemplate();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "bucketWidth", 10);
+    }
+
+    @Test
+    void wideRangeVisitsOnlyPopulatedBuckets() {
+        jdbcTemplate.rows = List.of(new long[]{0, 3}, new long[]{200_000_000L, 2});
+
+        // Sin subMap serían 2×10⁸ búsquedas por petición
+        int count = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> service.countByPriceRange(0, Integer.MAX_VALUE));
+        assertEquals(5, count);
+        assertEquals(5, service.countAll());
+        assertEquals(3, service.countByPriceRange(0, 1_000_000));
+    }
+
+    @Test
+    void adjustmentsDuringReloadAreReplayed() {
+        jdbcTemplate.rows = List.of(new long[]{5, 2});
+        service.reload();
+
+        // Un producto se confirma mientras la consulta de la recarga ya leyó su cubeta
+        jdbcTemplate.duringQuery = () -> service.onProductAdded(55f);
+        service.reload();
+
+        assertEquals(3, service.countAll());
+        assertEquals(3, service.countByPriceRange(50, 70));
+    }
+
+    @Test
+    void adjustmentsPublishNewTotals() {
+        jdbcTemplate.rows = List.of(new long[]{1, 1});
+        service.reload();
+
+        service.onProductAdded(35f);
+        service.onPriceChanged(15f, 45f);
+        service.onProductRemoved(35f);
+
+        assertEquals(1, service.countAll());
+        assertEquals(0, service.countByPriceRange(10, 25));
+        assertEquals(1, service.countByPriceRange(40, 55));
+    }
+
+    // Devuelve filas (BUCKET, TOTAL) fijas y puede simular una escritura concurrente en medio de la consulta
+    private static final class FakeJdbcTemplate extends JdbcTemplate {
+        private List<long[]> rows = new ArrayList<>();
+        private Runnable duringQuery = () -> { };
+
+        @Override
+        public void query(String sql, Object[] args, RowCallbackHandler rch) {
+            try {
+                for (long[] row : rows) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getLong("BUCKET")).thenReturn(row[0]);
+                    when(rs.getLong("TOTAL")).thenReturn(row[1]);
+                    rch.processRow(rs);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            duringQuery.run();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.ImportReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ProductImportServiceTests {
+
+    private static final int BRAND_ID = 13001;
+    private static final int CATEGORY_ID = 13001;
+    private static final int EXISTING_ID = 13001;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Object chunkSize;
+
+    @BeforeEach
+    void setUp() {
+        // Bloques de 3 filas: el primero incluye una fila que falla en la base y obliga a reintentar de a una
+        chunkSize = ReflectionTestUtils.getField(productImportService, "chunkSize");
+        ReflectionTestUtils.setField(productImportService, "chunkSize", 3);
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO BRAND (ID, NAME) VALUES (?, 'Marca Importación')", BRAND_ID);
+        jdbcTemplate.update("INSERT INTO CATEGORY (ID, NAME, PARENT_CATEGORY_ID) VALUES (?, 'Hogar y Cocina', NULL)", CATEGORY_ID);
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, DESCRIPTION, STOCK, IMAGE, BRAND_ID) " +
+                "VALUES (?, 'Importado Existente', 10, 'Antes', 5, 'vieja', ?)", EXISTING_ID, BRAND_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(productImportService, "chunkSize", chunkSize);
+        cleanUp();
+    }
+
+    @Test
+    void csvImportsValidRowsAndReportsRejected() {
+        String csv = String.join("\n",
+                "﻿name,price,description,stock,image,brand,category,categoryId",
+                "Importado Uno,10.5,\"Taza, de cerámica\",5,img1,Marca Importación,Hogar y Cocina,",
+                "\"Importado \"\"Dos\"\"\",20,\"Dice \"\"hola\"\", adiós\",3,img2,MARCA importacion,,",
+                "Importado Tres,abc,Precio mal escrito,1,img3,Marca Importación,,",
+                "Importado Cuatro,5,,1,img4,Marca Desconocida,,",
+                "",
+                "Importado Cinco,5,,1,img5,Marca Importación,,99999",
+                "Importado Seis,7,,2,img6,Marca Importación,hogar y cocina,");
+
+        ImportReport report = productImportService.importProducts(stream(csv), "csv", null);
+
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(6, report.getRowsRead());
+        assertEquals(3, report.getRowsImported());
+        assertEquals(3, report.getRowsRejected());
+        assertEquals(2, report.getChunksCommitted());
+        List<String> rejections = report.getRejections();
+        assertEquals("fila 3: precio inválido", rejections.get(0));
+        assertEquals("fila 4: marca desconocida: Marca Desconocida", rejections.get(1));
+        // La categoría 99999 no existe: el lote falla, y al reintentar fila por fila solo se rechaza esa
+        assertTrue(rejections.get(2).startsWith("fila 5: "), rejections.get(2));
+
+        Map<String, Object> uno = product("Importado Uno");
+        assertEquals("Taza, de cerámica", uno.get("DESCRIPTION"));
+        assertEquals(BRAND_ID, ((Number) uno.get("BRAND_ID")).intValue());
+        Map<String, Object> dos = product("Importado \"Dos\"");
+        assertEquals("Dice \"hola\", adiós", dos.get("DESCRIPTION"));
+        assertEquals(BRAND_ID, ((Number) dos.get("BRAND_ID")).intValue());
+        assertEquals(List.of("Importado Seis", "Importado Uno"), jdbcTemplate.queryForList(
+                "SELECT p.NAME FROM CATEGORY_PRODUCT cp JOIN PRODUCT p ON p.ID = cp.PRODUCT_ID " +
+                        "WHERE cp.CATEGORY_ID = ? ORDER BY p.NAME", String.class, CATEGORY_ID));
+        assertEquals(0, count("Importado Tres") + count("Importado Cuatro") + count("Importado Cinco"));
+    }
+
+    @Test
+    void ndjsonUpsertsExistingProductByName() {
+        String ndjson = String.join("\n",
+                "{\"name\":\" Importado Existente \",\"price\":15,\"description\":\"Después\",\"stock\":8,\"image\":\"nueva\",\"brandId\":13001,\"categoryId\":13001}",
+                "{\"name\":\"Importado Nuevo\",\"price\":3,\"stock\":1,\"image\":\"img\",\"brand\":\"marca importación\"}",
+                "{\"name\":\"Importado Sin Marca\",\"price\":3,\"stock\":1,\"image\":\"img\",\"brandId\":99999}");
+
+        ImportReport report = productImportService.importProducts(stream(ndjson), "ndjson", "importacion-13001");
+
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(List.of("fila 3: marca desconocida: 99999"), report.getRejections());
+        assertEquals(report, productImportService.findJob("importacion-13001"));
+
+        // Mismo ID: el nombre es la clave natural
+        assertEquals(1, count("Importado Existente"));
+        Map<String, Object> existing = product("Importado Existente");
+        assertEquals(EXISTING_ID, ((Number) existing.get("ID")).intValue());
+        assertEquals(15f, ((Number) existing.get("PRICE")).floatValue());
+        assertEquals(8, ((Number) existing.get("STOCK")).intValue());
+        assertEquals("Después", existing.get("DESCRIPTION"));
+        assertEquals("nueva", existing.get("IMAGE"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ? AND PRODUCT_ID = ?",
+                Integer.class, CATEGORY_ID, EXISTING_ID));
+        assertEquals(BRAND_ID, ((Number) product("Importado Nuevo").get("BRAND_ID")).intValue());
+    }
+
+    private Map<String, Object> product(String name) {
+        return jdbcTemplate.queryForMap("SELECT ID, PRICE, DESCRIPTION, STOCK, IMAGE, BRAND_ID FROM PRODUCT WHERE NAME = ?", name);
+    }
+
+    private int count(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRODUCT WHERE NAME = ?", Integer.class, name);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM CATEGORY_PRODUCT WHERE CATEGORY_ID = ? " +
+                "OR PRODUCT_ID IN (SELECT ID FROM PRODUCT WHERE NAME LIKE 'Importado%')", CATEGORY_ID);
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE NAME LIKE 'Importado%'");
+        jdbcTemplate.update("DELETE FROM CATEGORY WHERE ID = ?", CATEGORY_ID);
+        jdbcTemplate.update("DELETE FROM BRAND WHERE ID = ?", BRAND_ID);
+    }
+}
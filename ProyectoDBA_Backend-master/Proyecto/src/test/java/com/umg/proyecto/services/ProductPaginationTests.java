@@ -0,0 +1,122 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.Product;
+import com.umg.proyecto.models.ProductCursor;
+import com.umg.proyecto.models.ProductPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ProductPaginationTests {
+
+    private static final int MIN_PRICE = 16_777_000;
+    private static final int MAX_PRICE = 16_778_000;
+
+    // 16777217 no se puede representar como float: el cursor debe llevar el valor de la columna
+    private static final Object[][] PRODUCTS = {
+            {7001, 16_777_217.0}, {7002, 16_777_100.5}, {7003, 16_777_217.0},
+            {7004, 16_777_300.25}, {7005, 16_777_217.0}, {7006, 16_777_100.5}, {7007, 16_777_999.0}};
+
+    // Orden esperado por (PRICE, ID)
+    private static final List<Integer> BY_PRICE = List.of(7002, 7006, 7001, 7003, 7005, 7004, 7007);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCountService productCountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 7001 AND 7007");
+        for (Object[] product : PRODUCTS) {
+            jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (?, ?, ?, 1, 'img')",
+                    product[0], "Paginado " + product[0], product[1]);
+        }
+    }
+
+    @Test
+    void cursorWalksPriceRangeOnceInOrder() {
+        List<Integer> seen = new ArrayList<>();
+        ProductPage page = productService.getProductsByPriceRangeAfter(MIN_PRICE, MAX_PRICE, null, 2);
+        seen.addAll(ids(page.getProducts()));
+        while (page.hasMore()) {
+            // Ida y vuelta por el token, como lo haría un cliente
+            ProductCursor cursor = ProductCursor.decode(page.getNextCursor().encode());
+            page = productService.getProductsByPriceRangeAfter(MIN_PRICE, MAX_PRICE, cursor, 2);
+            seen.addAll(ids(page.getProducts()));
+        }
+        assertEquals(BY_PRICE, seen);
+    }
+
+    @Test
+    void pageModeUsesSameOrderAndHandsOverToCursor() {
+        ProductPage second = productService.getProductsByPriceRangePage(MIN_PRICE, MAX_PRICE, 2, 2);
+        assertEquals(BY_PRICE.subList(2, 4), ids(second.getProducts()));
+        assertTrue(second.hasMore());
+
+        ProductPage next = productService.getProductsByPriceRangeAfter(MIN_PRICE, MAX_PRICE, second.getNextCursor(), 10);
+        assertEquals(BY_PRICE.subList(4, 7), ids(next.getProducts()));
+        assertFalse(next.hasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void pageMethodsReturnAtMostSizeRows() {
+        assertEquals(BY_PRICE.subList(0, 3), ids(productService.getProductsByPriceRange(MIN_PRICE, MAX_PRICE, 1, 3)));
+        assertEquals(BY_PRICE.subList(6, 7), ids(productService.getProductsByPriceRange(MIN_PRICE, MAX_PRICE, 3, 3)));
+    }
+
+    @Test
+    void paginatedProductsKeepsPageSize() {
+        int size = 3;
+        List<Product> first = productService.getPaginatedProducts(1, size);
+        assertEquals(size, first.size());
+        ProductPage page = productService.getProductsPage(1, size);
+        assertEquals(ids(first), ids(page.getProducts()));
+        assertEquals(first.get(size - 1).getId(), page.getNextCursor().getLastId());
+    }
+
+    @Test
+    void countWithinOneBucketIsExact() {
+        assertEquals(3, productCountService.countByPriceRange(16_777_217, 16_777_217));
+        assertEquals(0, productCountService.countByPriceRange(16_777_218, 16_777_218));
+    }
+
+    @Test
+    void idCursorContinuesAfterLastId() {
+        ProductPage page = productService.getProductsAfter(new ProductCursor(7003, null), 2);
+        assertEquals(List.of(7004, 7005), ids(page.getProducts()));
+        assertEquals(7005, page.getNextCursor().getLastId());
+    }
+
+    @Test
+    void cursorBelowMinPriceStartsAtMinPrice() {
+        // Cursor de una página anterior a un minPrice más alto: la búsqueda empieza en minPrice
+        ProductCursor cursor = new ProductCursor(7006, new BigDecimal("16777100.5"));
+        ProductPage page = productService.getProductsByPriceRangeAfter(16_777_217, MAX_PRICE, cursor, 10);
+        assertEquals(BY_PRICE.subList(2, 7), ids(page.getProducts()));
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+}
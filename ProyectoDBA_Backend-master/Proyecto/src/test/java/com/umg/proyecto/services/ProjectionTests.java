@@ -0,0 +1,94 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.Customer;
+import com.umg.proyecto.models.Season;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ProjectionTests {
+
+    private static final int CUSTOMER_ID = 2001;
+    private static final int SEASON_ID = 2001;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private SeasonService seasonService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM CUSTOMER WHERE ID = ?", CUSTOMER_ID);
+        jdbcTemplate.update("INSERT INTO CUSTOMER (ID, NAMES, LAST_NAMES, PHONE_NUMBER, ADDRESS, STATUS, EMAIL, PASSWORD) " +
+                "VALUES (?, 'Ana', 'Proyección', '55552001', 'Zona 3', 'A', 'proyeccion@correo.com', 'secreto')", CUSTOMER_ID);
+        jdbcTemplate.update("DELETE FROM SEASON WHERE ID = ?", SEASON_ID);
+        jdbcTemplate.update("INSERT INTO SEASON (ID, NAME, START_DATE, END_DATE, DESCRIPTION, STATUS, IMAGE) " +
+                "VALUES (?, 'Temporada proyección', DATE '2026-01-01', DATE '2026-01-31', 'Descripción larga', 'A', 'img')", SEASON_ID);
+    }
+
+    @Test
+    void selectListsColumnsInDeclarationOrder() {
+        Projection<Integer> projection = Projection.of((rs, rowNum) -> rs.getInt(1), "ID", "NAME");
+        assertEquals("SELECT ID, NAME FROM PRODUCT WHERE ID = ?", projection.select("PRODUCT WHERE ID = ?"));
+        assertEquals(2, projection.getWidth());
+        assertThrows(IllegalArgumentException.class, () -> Projection.of((rs, rowNum) -> rs.getInt(1)));
+    }
+
+    @Test
+    void customerIsReadByPositionWithoutPassword() {
+        Customer customer = customerService.findById(CUSTOMER_ID);
+
+        assertEquals(new Customer(CUSTOMER_ID, "Ana", "Proyección", "55552001", "Zona 3", 'A',
+                "proyeccion@correo.com", null), customer);
+    }
+
+    @Test
+    void loginComparesPasswordInDatabaseAndUpdateKeepsIt() {
+        assertNotNull(customerService.login("proyeccion@correo.com", "secreto"));
+        assertNull(customerService.login("proyeccion@correo.com", "otra"));
+
+        // Edición desde una lectura: llega sin contraseña y se conserva la guardada
+        Customer customer = customerService.findById(CUSTOMER_ID);
+        customer.setAddress("Zona 4");
+        customerService.update(customer);
+
+        assertEquals("Zona 4", customerService.findById(CUSTOMER_ID).getAddress());
+        assertNotNull(customerService.login("proyeccion@correo.com", "secreto"));
+    }
+
+    @Test
+    void seasonListSkipsDescriptionAndDetailKeepsIt() {
+        Season summary = seasonService.findAllSeasons().stream()
+                .filter(season -> season.getId() == SEASON_ID)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Temporada proyección", summary.getName());
+        assertEquals(Date.valueOf("2026-01-31"), summary.getEndDate());
+        assertEquals('A', summary.getStatus());
+        assertEquals("img", summary.getImage());
+        assertNull(summary.getDescription());
+
+        summary.setName("Temporada editada");
+        seasonService.update(summary);
+
+        Season detail = seasonService.findById(SEASON_ID);
+        assertEquals("Temporada editada", detail.getName());
+        assertEquals("Descripción larga", detail.getDescription());
+    }
+}
@@ -0,0 +1,104 @@
+package com.umg.proyecto.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class SeasonScheduleTests {
+
+    private static final int SEASON_ID = 12001;
+
+    @Autowired
+    private SeasonSchedule seasonSchedule;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (12001, 'Temporada 12001', 10, 1, 'img')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+        seasonSchedule.rebuild();
+    }
+
+    @Test
+    void seasonBecomesActiveAndExpiresAtItsBoundaries() {
+        // DATE guarda segundos: los límites caen en segundos enteros
+        long start = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        long end = start + 1000;
+        insertSeason(start, end);
+        seasonSchedule.rebuild();
+
+        assertFalse(isActive());
+        assertArrayEquals(new int[]{12001}, seasonSchedule.getProductIds(SEASON_ID));
+
+        // Sin recargar: la tarea programada en cada límite recalcula las activas
+        await(this::isActive);
+        assertTrue(System.currentTimeMillis() >= start);
+        await(() -> !isActive());
+        assertTrue(System.currentTimeMillis() > end);
+    }
+
+    @Test
+    void resyncPicksUpWritesFromAnotherInstance() {
+        seasonSchedule.rebuild();
+        assertNull(seasonSchedule.getProductIds(SEASON_ID));
+
+        // Escrita sin pasar por SeasonService: ningún AfterCommit recarga este calendario
+        long now = System.currentTimeMillis();
+        insertSeason(now - 60_000, now + 3_600_000);
+        seasonSchedule.rebuild();
+
+        assertTrue(isActive());
+        assertArrayEquals(new int[]{12001}, seasonSchedule.getProductIds(SEASON_ID));
+    }
+
+    private void insertSeason(long start, long end) {
+        jdbcTemplate.update("INSERT INTO SEASON (ID, NAME, START_DATE, END_DATE, STATUS) VALUES (?, 'Temporada límites', ?, ?, '1')",
+                SEASON_ID, new Timestamp(start), new Timestamp(end));
+        jdbcTemplate.update("INSERT INTO SEASON_PRODUCT (SEASON_ID, PRODUCT_ID) VALUES (?, 12001)", SEASON_ID);
+    }
+
+    private boolean isActive() {
+        return seasonSchedule.getActiveSeasons().stream().anyMatch(season -> season.getId() == SEASON_ID);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "El calendario no cambió a tiempo");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM SEASON_PRODUCT WHERE SEASON_ID = ?", SEASON_ID);
+        jdbcTemplate.update("DELETE FROM SEASON WHERE ID = ?", SEASON_ID);
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID = 12001");
+    }
+}
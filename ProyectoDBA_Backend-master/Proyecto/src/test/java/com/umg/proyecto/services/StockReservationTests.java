@@ -0,0 +1,81 @@
+package com.umg.proyecto.services;
+
+import com.umg.proyecto.models.OrderDetail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class StockReservationTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM PRODUCT WHERE ID BETWEEN 4001 AND 4003");
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (4001, 'Stock 4001', 10, 10, 'img')");
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (4002, 'Stock 4002', 10, 3, 'img')");
+        jdbcTemplate.update("INSERT INTO PRODUCT (ID, NAME, PRICE, STOCK, IMAGE) VALUES (4003, 'Stock 4003', 10, 1, 'img')");
+    }
+
+    @Test
+    void linesOfSameProductAreDecrementedTogether() {
+        productService.reserveStock(List.of(line(4001, 2), line(4002, 3), line(4001, 3)));
+
+        assertEquals(5, stock(4001));
+        assertEquals(0, stock(4002));
+    }
+
+    @Test
+    void insufficientLineRollsBackWholeReservation() {
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> productService.reserveStock(List.of(line(4001, 4), line(4002, 4), line(4003, 1))));
+
+        assertEquals(List.of(4002), e.getProductIds());
+        assertEquals(10, stock(4001));
+        assertEquals(3, stock(4002));
+        assertEquals(1, stock(4003));
+    }
+
+    @Test
+    void missingProductIsReportedAsFailed() {
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> productService.reserveStock(List.of(line(4001, 1), line(4999, 1))));
+
+        assertEquals(List.of(4999), e.getProductIds());
+        assertEquals(10, stock(4001));
+    }
+
+    @Test
+    void combinedQuantityMustFitStock() {
+        // Cada línea cabe por separado, pero juntas superan el stock
+        assertThrows(InsufficientStockException.class,
+                () -> productService.reserveStock(List.of(line(4002, 2), line(4002, 2))));
+        assertEquals(3, stock(4002));
+
+        productService.checkAndReduceStock(4003, 1);
+        assertEquals(0, stock(4003));
+        assertThrows(InsufficientStockException.class, () -> productService.checkAndReduceStock(4003, 1));
+    }
+
+    private static OrderDetail line(int productId, int qty) {
+        return new OrderDetail(null, productId, qty);
+    }
+
+    private int stock(int productId) {
+        return jdbcTemplate.queryForObject("SELECT STOCK FROM PRODUCT WHERE ID = ?", Integer.class, productId);
+    }
+}
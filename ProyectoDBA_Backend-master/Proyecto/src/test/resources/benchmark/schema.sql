@@ -0,0 +1,109 @@
+-- Esquema de proyecto.sql para H2 en modo Oracle (benchmarks). Sin triggers: los IDs salen de las secuencias
+CREATE TABLE BRAND (
+    ID INTEGER PRIMARY KEY,
+    NAME VARCHAR(50) UNIQUE
+);
+
+CREATE TABLE PRODUCT (
+    ID INTEGER PRIMARY KEY,
+    NAME VARCHAR(50) NOT NULL UNIQUE,
+    PRICE FLOAT NOT NULL,
+    DESCRIPTION VARCHAR(200),
+    STOCK INTEGER NOT NULL,
+    IMAGE VARCHAR(200) NOT NULL,
+    BRAND_ID INTEGER,
+    FOREIGN KEY (BRAND_ID) REFERENCES BRAND (ID)
+);
+
+CREATE TABLE SEASON (
+    ID INTEGER PRIMARY KEY,
+    NAME VARCHAR(50) NOT NULL UNIQUE,
+    START_DATE DATE NOT NULL,
+    END_DATE DATE NOT NULL,
+    DESCRIPTION VARCHAR(200),
+    STATUS CHAR(1) NOT NULL,
+    IMAGE VARCHAR(200)
+);
+
+CREATE TABLE SEASON_PRODUCT (
+    PRODUCT_ID INTEGER NOT NULL,
+    SEASON_ID INTEGER NOT NULL,
+    FOREIGN KEY (PRODUCT_ID) REFERENCES PRODUCT (ID),
+    FOREIGN KEY (SEASON_ID) REFERENCES SEASON (ID)
+);
+
+CREATE TABLE CATEGORY (
+    ID INTEGER PRIMARY KEY,
+    NAME VARCHAR(100) NOT NULL UNIQUE,
+    PARENT_CATEGORY_ID INTEGER,
+    FOREIGN KEY (PARENT_CATEGORY_ID) REFERENCES CATEGORY (ID)
+);
+
+CREATE TABLE CATEGORY_PRODUCT (
+    CATEGORY_ID INTEGER NOT NULL,
+    PRODUCT_ID INTEGER NOT NULL,
+    FOREIGN KEY (CATEGORY_ID) REFERENCES CATEGORY (ID),
+    FOREIGN KEY (PRODUCT_ID) REFERENCES PRODUCT (ID)
+);
+
+CREATE TABLE CUSTOMER (
+    ID INTEGER PRIMARY KEY,
+    NAMES VARCHAR(100) NOT NULL,
+    LAST_NAMES VARCHAR(100) NOT NULL,
+    PHONE_NUMBER VARCHAR(8) NOT NULL,
+    ADDRESS VARCHAR(200) NOT NULL,
+    STATUS CHAR(1) NOT NULL,
+    EMAIL VARCHAR(100) NOT NULL,
+    PASSWORD VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE "ORDER" (
+    ID INTEGER PRIMARY KEY,
+    PURCHASE_DATE DATE NOT NULL,
+    CUSTOMER_ID INTEGER NOT NULL,
+    TOTAL FLOAT NOT NULL,
+    STATUS VARCHAR2(30),
+    FOREIGN KEY (CUSTOMER_ID) REFERENCES CUSTOMER (ID)
+);
+
+CREATE TABLE ORDER_DETAIL (
+    ORDER_ID INTEGER NOT NULL,
+    PRODUCT_ID INTEGER NOT NULL,
+    QTY INTEGER NOT NULL,
+    FOREIGN KEY (ORDER_ID) REFERENCES "ORDER" (ID) ON DELETE CASCADE,
+    FOREIGN KEY (PRODUCT_ID) REFERENCES PRODUCT (ID)
+);
+
+CREATE TABLE PRODUCT_STOCK_SLOT (
+    PRODUCT_ID INTEGER NOT NULL,
+    SLOT INTEGER NOT NULL,
+    STOCK INTEGER NOT NULL,
+    PRIMARY KEY (PRODUCT_ID, SLOT),
+    FOREIGN KEY (PRODUCT_ID) REFERENCES PRODUCT (ID)
+);
+
+CREATE TABLE CHECKOUT_OUTBOX (
+    TOKEN VARCHAR2(36) PRIMARY KEY,
+    PAYLOAD CLOB,
+    STATUS VARCHAR2(12) NOT NULL,
+    ORDER_ID INTEGER,
+    ERROR VARCHAR2(400),
+    ATTEMPTS INTEGER DEFAULT 0 NOT NULL,
+    CREATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    UPDATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+CREATE SEQUENCE PRODUCT_SEQ START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE BRAND_SEQ START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE SEASON_SEQ START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE CATEGORY_SEQ START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE CUSTOMER_SEQ START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE CREDIT_CARD_SEQ START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE ORDER_SEQ START WITH 1 INCREMENT BY 1;
+
+CREATE INDEX PRODUCT_PRICE_ID_IDX ON PRODUCT (PRICE, ID);
+CREATE INDEX CHECKOUT_OUTBOX_STATUS_IDX ON CHECKOUT_OUTBOX (STATUS, CREATED_AT);
+CREATE INDEX CATEGORY_PRODUCT_CAT_IDX ON CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID);
+CREATE INDEX CATEGORY_PARENT_IDX ON CATEGORY (PARENT_CATEGORY_ID);
+CREATE INDEX ORDER_CUSTOMER_DATE_IDX ON "ORDER" (CUSTOMER_ID, PURCHASE_DATE, ID);
+CREATE INDEX ORDER_DATE_IDX ON "ORDER" (PURCHASE_DATE, ID);
@@ -173,3 +173,38 @@ BEGIN
 END;
 /
 
+
+-- Índice para la paginación por keyset de /api/products/filter (orden PRICE, ID)
+CREATE INDEX PRODUCT_PRICE_ID_IDX ON PRODUCT (PRICE, ID);
+
+-- Stock repartido en ranuras para productos con alta contención (ver HotStockService)
+CREATE TABLE PRODUCT_STOCK_SLOT (
+    PRODUCT_ID INTEGER NOT NULL,
+    SLOT INTEGER NOT NULL,
+    STOCK INTEGER NOT NULL,
+    PRIMARY KEY (PRODUCT_ID, SLOT),
+    FOREIGN KEY (PRODUCT_ID) REFERENCES PRODUCT (ID)
+);
+
+-- Cola de checkout asíncrono (ver CheckoutQueueService); PAYLOAD se borra al llegar a un estado final
+CREATE TABLE CHECKOUT_OUTBOX (
+    TOKEN VARCHAR2(36) PRIMARY KEY,
+    PAYLOAD CLOB,
+    STATUS VARCHAR2(12) NOT NULL,
+    ORDER_ID INTEGER,
+    ERROR VARCHAR2(400),
+    ATTEMPTS INTEGER DEFAULT 0 NOT NULL,
+    CREATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    UPDATED_AT TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+CREATE INDEX CHECKOUT_OUTBOX_STATUS_IDX ON CHECKOUT_OUTBOX (STATUS, CREATED_AT);
+
+-- Índices para mover relaciones de categoría con una sola sentencia (CategoryService.delete)
+CREATE INDEX CATEGORY_PRODUCT_CAT_IDX ON CATEGORY_PRODUCT (CATEGORY_ID, PRODUCT_ID);
+CREATE INDEX CATEGORY_PARENT_IDX ON CATEGORY (PARENT_CATEGORY_ID);
+
+-- Historial de órdenes paginado por keyset (OrderService.searchOrders, orden PURCHASE_DATE, ID).
+-- Con cliente se recorre el primero; el listado general (en cualquier dirección) usa el segundo
+CREATE INDEX ORDER_CUSTOMER_DATE_IDX ON "ORDER" (CUSTOMER_ID, PURCHASE_DATE, ID);
+CREATE INDEX ORDER_DATE_IDX ON "ORDER" (PURCHASE_DATE, ID);